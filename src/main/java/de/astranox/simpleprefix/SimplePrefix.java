@@ -1,18 +1,28 @@
 package de.astranox.simpleprefix;
 
 import de.astranox.simpleprefix.commands.PrefixCommand;
+import de.astranox.simpleprefix.handlers.BackgroundScheduler;
 import de.astranox.simpleprefix.handlers.ConfigWatcher;
 import de.astranox.simpleprefix.handlers.LuckPermsEventHandler;
 import de.astranox.simpleprefix.handlers.PlayerJoinHandler;
 import de.astranox.simpleprefix.managers.*;
+import de.astranox.simpleprefix.metrics.PluginMetrics;
+import de.astranox.simpleprefix.metrics.PrometheusExporter;
+import de.astranox.simpleprefix.metrics.Stats;
 import de.astranox.simpleprefix.update.UpdateChecker;
+import de.astranox.simpleprefix.util.PaperComponents;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.event.Listener;
+import org.bukkit.plugin.PluginDescriptionFile;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.plugin.java.JavaPluginLoader;
 import org.bukkit.scoreboard.Scoreboard;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 import java.util.logging.Level;
 
 public class SimplePrefix extends JavaPlugin implements Listener {
@@ -27,11 +37,25 @@ public class SimplePrefix extends JavaPlugin implements Listener {
     private MigrationManager migrationManager;
     private ConfigWatcher configWatcher;
     private LuckPermsEventHandler luckPermsEventHandler;
+    private RefreshJob refreshJob;
+    private final PluginMetrics metrics = new PluginMetrics();
+    private PrometheusExporter prometheusExporter;
+    private BackgroundScheduler backgroundScheduler;
 
     private UpdateChecker updateChecker;
 
+    public SimplePrefix() {
+        super();
+    }
+
+    // Only for tests, which create the plugin outside a running server
+    SimplePrefix(JavaPluginLoader loader, PluginDescriptionFile description, File dataFolder, File file) {
+        super(loader, description, dataFolder, file);
+    }
+
     @Override
     public void onEnable() {
+        PaperComponents.setLogger(getLogger());
         initializeLuckPerms();
         scoreboard = Bukkit.getScoreboardManager().getMainScoreboard();
         initializeManagers();
@@ -39,12 +63,13 @@ public class SimplePrefix extends JavaPlugin implements Listener {
         registerEvents();
         registerCommands();
         startWatchers();
+        startMetrics();
         initializePlayers();
 
         cleanupOldVersions();
 
         updateChecker = new UpdateChecker(this);
-        Bukkit.getScheduler().runTaskLaterAsynchronously(this, () -> updateChecker.checkForUpdates(), 40L);
+        startBackgroundJobs();
 
         if (useLuckPerms) {
             getLogger().info("SimplePrefix enabled with LuckPerms integration!");
@@ -56,7 +81,18 @@ public class SimplePrefix extends JavaPlugin implements Listener {
 
     @Override
     public void onDisable() {
+        stopBackgroundJobs();
         stopWatchers();
+        stopMetrics();
+        if (luckPermsEventHandler != null) {
+            luckPermsEventHandler.getUpdateScheduler().stop();
+        }
+        if (groupManager != null) {
+            groupManager.flush();
+        }
+        if (refreshJob != null) {
+            refreshJob.shutdown();
+        }
         cleanupTeams();
         getLogger().info("SimplePrefix disabled!");
     }
@@ -84,10 +120,11 @@ public class SimplePrefix extends JavaPlugin implements Listener {
         configManager = new ConfigManager(this);
         groupManager = new GroupManager(this, luckPermsWrapper, useLuckPerms);
         permissionGroupResolver = new PermissionGroupResolver(this, groupManager);
-        teamManager = new TeamManager(this, luckPermsWrapper, configManager, groupManager, permissionGroupResolver);
-        chatManager = new TabChatManager(this, luckPermsWrapper, configManager,
-                groupManager, permissionGroupResolver);
+        chatManager = new TabChatManager(this, configManager, groupManager);
+        teamManager = new TeamManager(this, luckPermsWrapper, configManager, groupManager,
+                permissionGroupResolver, chatManager);
         migrationManager = new MigrationManager(this, groupManager, configManager);
+        refreshJob = new RefreshJob(this, teamManager, configManager);
     }
 
     private void loadConfigurations() {
@@ -97,7 +134,9 @@ public class SimplePrefix extends JavaPlugin implements Listener {
 
     private void registerEvents() {
         getServer().getPluginManager().registerEvents(chatManager, this);
-        PlayerJoinHandler joinHandler = new PlayerJoinHandler(this, teamManager, chatManager, configManager);
+        chatManager.registerNativeChat();
+        PlayerJoinHandler joinHandler = new PlayerJoinHandler(this, teamManager, chatManager, configManager,
+                permissionGroupResolver);
         getServer().getPluginManager().registerEvents(joinHandler, this);
 
         if (useLuckPerms && luckPermsWrapper != null) {
@@ -128,12 +167,52 @@ public class SimplePrefix extends JavaPlugin implements Listener {
         }
     }
 
+    private void startMetrics() {
+        if (configManager.isJmxEnabled()) {
+            Stats.register(this, metrics);
+        }
+
+        prometheusExporter = new PrometheusExporter(this, metrics);
+    }
+
+    private void stopMetrics() {
+        Stats.unregister();
+    }
+
+    private void startBackgroundJobs() {
+        backgroundScheduler = new BackgroundScheduler(this);
+        backgroundScheduler.every("config poll", configManager.getReloadInterval(), configManager::getReloadInterval,
+                configManager::isAutoReloadEnabled, configWatcher::poll);
+        if (groupManager.isSharedStore()) {
+            backgroundScheduler.every("group store poll", configManager.getReloadInterval(), configManager::getReloadInterval,
+                    configManager::isAutoReloadEnabled, this::pollGroupStore);
+        }
+        backgroundScheduler.every("update check", 2, configManager::getUpdateCheckInterval,
+                configManager::isUpdateCheckEnabled, updateChecker::checkForUpdates);
+        backgroundScheduler.every("metrics export", configManager.getPrometheusInterval(), configManager::getPrometheusInterval,
+                configManager::isPrometheusEnabled, prometheusExporter::write);
+        backgroundScheduler.start();
+    }
+
+    private void pollGroupStore() {
+        if (!groupManager.hasExternalChanges()) {
+            return;
+        }
+
+        Bukkit.getScheduler().runTask(this, () -> {
+            getLogger().info("Reloading " + groupManager.getStoreName() + "...");
+            updateGroups(groupManager.reloadGroups());
+        });
+    }
+
+    private void stopBackgroundJobs() {
+        if (backgroundScheduler != null) {
+            backgroundScheduler.stop();
+        }
+    }
+
     private void initializePlayers() {
-        Bukkit.getScheduler().runTaskLater(this, () -> {
-            for (Player player : Bukkit.getOnlinePlayers()) {
-                teamManager.updatePlayer(player);
-            }
-        }, 20L);
+        Bukkit.getScheduler().runTaskLater(this, () -> refreshJob.requestAll(null), 20L);
     }
 
     private void cleanupTeams() {
@@ -143,9 +222,28 @@ public class SimplePrefix extends JavaPlugin implements Listener {
     }
 
     public void updateAllPlayers() {
+        refreshJob.requestAll(null);
+    }
+
+    public int updateGroups(Set<String> groupNames) {
+        if (groupNames.isEmpty()) {
+            return 0;
+        }
+
+        GroupRegistry registry = groupManager.getRegistry();
+        GroupMemberIndex members = teamManager.getMemberIndex();
+        boolean defaultChanged = groupNames.contains("default");
+        List<Player> players = new ArrayList<>();
+
         for (Player player : Bukkit.getOnlinePlayers()) {
-            teamManager.updatePlayer(player);
+            String groupName = members.groupOf(player.getUniqueId());
+            if (groupName == null || groupNames.contains(groupName)
+                    || (defaultChanged && !registry.contains(groupName))) {
+                players.add(player);
+            }
         }
+
+        return refreshJob.request(players, null);
     }
 
     private void cleanupOldVersions() {
@@ -222,10 +320,22 @@ public class SimplePrefix extends JavaPlugin implements Listener {
         return migrationManager;
     }
 
+    public RefreshJob getRefreshJob() {
+        return refreshJob;
+    }
+
     public ConfigWatcher getConfigWatcher() {
         return configWatcher;
     }
 
+    public LuckPermsEventHandler getLuckPermsEventHandler() {
+        return luckPermsEventHandler;
+    }
+
+    public PluginMetrics getMetrics() {
+        return metrics;
+    }
+
     public UpdateChecker getUpdateChecker() {
         return updateChecker;
     }
@@ -2,6 +2,8 @@ package de.astranox.simpleprefix.commands;
 
 import de.astranox.simpleprefix.SimplePrefix;
 import de.astranox.simpleprefix.managers.*;
+import de.astranox.simpleprefix.metrics.LatencyHistogram;
+import de.astranox.simpleprefix.metrics.PluginMetrics;
 import de.astranox.simpleprefix.update.UpdateChannel;
 import de.astranox.simpleprefix.update.VersionInfo;
 import de.astranox.simpleprefix.util.ComponentParser;
@@ -15,6 +17,8 @@ import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
 import java.util.stream.Collectors;
 
 public class PrefixCommand implements CommandExecutor, TabCompleter {
@@ -88,6 +92,32 @@ public class PrefixCommand implements CommandExecutor, TabCompleter {
         plugin.updateAllPlayers();
     }
 
+    private void updateGroup(String group, boolean rankingChanged) {
+        if (rankingChanged && !plugin.isUsingLuckPerms()) {
+            updateAllPlayers();
+        } else {
+            plugin.updateGroups(Collections.singleton(group));
+        }
+    }
+
+    private void replyWhenApplied(CommandSender sender, CompletableFuture<Boolean> update, String group,
+                                  boolean rankingChanged, String message) {
+        update.whenComplete((success, error) -> {
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                if (error != null) {
+                    plugin.getLogger().log(Level.SEVERE, "Failed to update group '" + group + "'", error);
+                    sendPrefix(sender, "<red>Failed to update group <white>" + group + "</white>! See console.");
+                    return;
+                }
+                if (!success) {
+                    sendPrefix(sender, "<yellow>LuckPerms could not be updated. See console.");
+                }
+                updateGroup(group, rankingChanged);
+                sendPrefix(sender, message);
+            });
+        });
+    }
+
     @Override
     public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
         try {
@@ -106,10 +136,14 @@ public class PrefixCommand implements CommandExecutor, TabCompleter {
             switch (sub) {
                 case "reload": {
                     require(sender, "simpleprefix.reload");
-                    configManager.reloadConfig();
-                    groupManager.reloadGroups();
-                    updateAllPlayers();
-                    sendPrefix(sender, "<green>Configs reloaded successfully!");
+                    boolean formatsChanged = configManager.reloadConfig();
+                    Set<String> changedGroups = groupManager.reloadGroups();
+                    if (formatsChanged) {
+                        updateAllPlayers();
+                    } else {
+                        plugin.updateGroups(changedGroups);
+                    }
+                    sendPrefix(sender, "<green>Configs reloaded successfully! <gray>(" + changedGroups.size() + " groups changed)");
                     return true;
                 }
 
@@ -204,8 +238,18 @@ public class PrefixCommand implements CommandExecutor, TabCompleter {
                     }
 
                     if (args.length == 1) {
-                        updateAllPlayers();
-                        sendPrefix(sender, "<green>All players updated!");
+                        RefreshJob job = plugin.getRefreshJob();
+                        if (job.isRunning()) {
+                            sendPrefix(sender, "<yellow>Refresh in progress: <white>" + job.getDone() + "/" + job.getTotal()
+                                    + " <gray>players (" + job.getElapsedMillis() + "ms)");
+                        }
+
+                        plugin.getPermissionGroupResolver().invalidateAll();
+                        int queued = job.requestAll(() -> sendPrefix(sender, "<green>All players updated! <gray>("
+                                + job.getDone() + " players in " + job.getElapsedMillis() + "ms over " + job.getTicks() + " ticks)"));
+                        if (queued > 0) {
+                            sendPrefix(sender, "<gray>Refreshing <white>" + queued + " <gray>players...");
+                        }
                         return true;
                     }
 
@@ -216,6 +260,7 @@ public class PrefixCommand implements CommandExecutor, TabCompleter {
                         return true;
                     }
 
+                    plugin.getPermissionGroupResolver().invalidate(p);
                     teamManager.updatePlayer(p);
                     sendPrefix(sender, "<green>Updated player: " + p.getName());
                     return true;
@@ -260,33 +305,42 @@ public class PrefixCommand implements CommandExecutor, TabCompleter {
                     }
 
                     header(sender, "Create Group");
-                    boolean success = groupManager.createGroup(groupName, prefix, "", 999, null);
-                    if (!success) {
-                        sendPrefix(sender, "<red>Failed to create group! Group may already exist.");
-                        return true;
-                    }
+                    sendPrefix(sender, "<gray>Creating group <white>" + groupName + "<gray>...");
+                    groupManager.createGroup(groupName, prefix, "", 999, null).whenComplete((success, error) -> {
+                        Bukkit.getScheduler().runTask(plugin, () -> {
+                            if (error != null) {
+                                plugin.getLogger().log(Level.SEVERE, "Failed to create group '" + groupName + "'", error);
+                                sendPrefix(sender, "<red>Failed to create group! See console for details.");
+                                return;
+                            }
+                            if (!success) {
+                                sendPrefix(sender, "<red>Failed to create group! Group may already exist.");
+                                return;
+                            }
 
-                    sendPrefix(sender, "<green>Successfully created group: <white>" + groupName);
-                    sender.sendMessage("");
-                    sendPrefix(sender, "<gray>Prefix: <white>" + prefix);
-                    sendPrefix(sender, "<gray>Priority: <white>999 <gray>(default)");
-                    sender.sendMessage("");
+                            sendPrefix(sender, "<green>Successfully created group: <white>" + groupName);
+                            sender.sendMessage("");
+                            sendPrefix(sender, "<gray>Prefix: <white>" + prefix);
+                            sendPrefix(sender, "<gray>Priority: <white>999 <gray>(default)");
+                            sender.sendMessage("");
 
-                    if (plugin.isUsingLuckPerms()) {
-                        sendPrefix(sender, "<green>✓ Group created in LuckPerms");
-                    }
-                    sendPrefix(sender, "<green>✓ Group created in SimplePrefix");
-                    sender.sendMessage("");
-                    sendPrefix(sender, "<gray>Use <white>/" + label + " set " + groupName + " priority <yellow><value><gray> to change priority");
-                    sendPrefix(sender, "<gray>Use <white>/" + label + " set " + groupName + " suffix <yellow><value><gray> to add suffix");
-                    sendPrefix(sender, "<gray>Use <white>/" + label + " set " + groupName + " namecolor <yellow><value><gray> to set name color");
-                    sender.sendMessage("");
-
-                    if (!plugin.isUsingLuckPerms()) {
-                        sendPrefix(sender, "<yellow>ℹ Give players permission: <white>simpleprefix.group." + groupName);
-                    }
+                            if (plugin.isUsingLuckPerms()) {
+                                sendPrefix(sender, "<green>✓ Group created in LuckPerms");
+                            }
+                            sendPrefix(sender, "<green>✓ Group created in SimplePrefix");
+                            sender.sendMessage("");
+                            sendPrefix(sender, "<gray>Use <white>/" + label + " set " + groupName + " priority <yellow><value><gray> to change priority");
+                            sendPrefix(sender, "<gray>Use <white>/" + label + " set " + groupName + " suffix <yellow><value><gray> to add suffix");
+                            sendPrefix(sender, "<gray>Use <white>/" + label + " set " + groupName + " namecolor <yellow><value><gray> to set name color");
+                            sender.sendMessage("");
 
-                    updateAllPlayers();
+                            if (!plugin.isUsingLuckPerms()) {
+                                sendPrefix(sender, "<yellow>ℹ Give players permission: <white>simpleprefix.group." + groupName);
+                            }
+
+                            updateGroup(groupName, true);
+                        });
+                    });
                     return true;
                 }
 
@@ -298,17 +352,25 @@ public class PrefixCommand implements CommandExecutor, TabCompleter {
                     }
                     String groupName = args[1];
                     header(sender, "Delete Group");
-                    boolean success = groupManager.deleteGroupCompletely(groupName);
-                    if (!success) {
-                        sendPrefix(sender, "<red>Failed to delete group! See console for details.");
-                        return true;
-                    }
-                    sendPrefix(sender, "<green>Successfully deleted group: <white>" + groupName);
-                    if (plugin.isUsingLuckPerms()) {
-                        sendPrefix(sender, "<green>✓ Group deleted from LuckPerms");
-                    }
-                    sendPrefix(sender, "<green>✓ Group deleted from SimplePrefix");
-                    updateAllPlayers();
+                    groupManager.deleteGroupCompletely(groupName).whenComplete((success, error) -> {
+                        Bukkit.getScheduler().runTask(plugin, () -> {
+                            if (error != null) {
+                                plugin.getLogger().log(Level.SEVERE, "Failed to delete group '" + groupName + "'", error);
+                                sendPrefix(sender, "<red>Failed to delete group! See console for details.");
+                                return;
+                            }
+                            if (!success) {
+                                sendPrefix(sender, "<red>Failed to delete group! See console for details.");
+                                return;
+                            }
+                            sendPrefix(sender, "<green>Successfully deleted group: <white>" + groupName);
+                            if (plugin.isUsingLuckPerms()) {
+                                sendPrefix(sender, "<green>✓ Group deleted from LuckPerms");
+                            }
+                            sendPrefix(sender, "<green>✓ Group deleted from SimplePrefix");
+                            updateGroup(groupName, false);
+                        });
+                    });
                     return true;
                 }
 
@@ -336,15 +398,13 @@ public class PrefixCommand implements CommandExecutor, TabCompleter {
                     switch (field) {
                         case "prefix":
                             prefix = value;
-                            groupManager.setGroup(group, prefix, suffix, priority, nameColor);
-                            updateAllPlayers();
-                            sendPrefix(sender, "<green>Prefix for group <white>" + group + "</white> set to: <white>" + value);
+                            replyWhenApplied(sender, groupManager.setGroup(group, prefix, suffix, priority, nameColor), group, false,
+                                    "<green>Prefix for group <white>" + group + "</white> set to: <white>" + value);
                             return true;
                         case "suffix":
                             suffix = value;
-                            groupManager.setGroup(group, prefix, suffix, priority, nameColor);
-                            updateAllPlayers();
-                            sendPrefix(sender, "<green>Suffix for group <white>" + group + "</white> set to: <white>" + value);
+                            replyWhenApplied(sender, groupManager.setGroup(group, prefix, suffix, priority, nameColor), group, false,
+                                    "<green>Suffix for group <white>" + group + "</white> set to: <white>" + value);
                             return true;
                         case "priority":
                             try {
@@ -357,15 +417,13 @@ public class PrefixCommand implements CommandExecutor, TabCompleter {
                                 sendPrefix(sender, "<red>Priority must be a number between 0 and 999.");
                                 return true;
                             }
-                            groupManager.setGroup(group, prefix, suffix, priority, nameColor);
-                            updateAllPlayers();
-                            sendPrefix(sender, "<green>Priority for group <white>" + group + "</white> set to: <white>" + priority);
+                            replyWhenApplied(sender, groupManager.setGroup(group, prefix, suffix, priority, nameColor), group, true,
+                                    "<green>Priority for group <white>" + group + "</white> set to: <white>" + priority);
                             return true;
                         case "namecolor":
                             nameColor = value;
-                            groupManager.setGroup(group, prefix, suffix, priority, nameColor);
-                            updateAllPlayers();
-                            sendPrefix(sender, "<green>Name color for group <white>" + group + "</white> set to: <white>" + value);
+                            replyWhenApplied(sender, groupManager.setGroup(group, prefix, suffix, priority, nameColor), group, false,
+                                    "<green>Name color for group <white>" + group + "</white> set to: <white>" + value);
                             return true;
                         default:
                             sendPrefix(sender, "<red>Unknown field: <white>" + field + "</white> (use prefix|suffix|priority|namecolor)");
@@ -395,19 +453,16 @@ public class PrefixCommand implements CommandExecutor, TabCompleter {
 
                     switch (field) {
                         case "prefix":
-                            groupManager.setGroup(group, "", suffix, priority, nameColor);
-                            updateAllPlayers();
-                            sendPrefix(sender, "<green>Prefix for group <white>" + group + "</white> cleared!");
+                            replyWhenApplied(sender, groupManager.setGroup(group, "", suffix, priority, nameColor), group, false,
+                                    "<green>Prefix for group <white>" + group + "</white> cleared!");
                             return true;
                         case "suffix":
-                            groupManager.setGroup(group, prefix, "", priority, nameColor);
-                            updateAllPlayers();
-                            sendPrefix(sender, "<green>Suffix for group <white>" + group + "</white> cleared!");
+                            replyWhenApplied(sender, groupManager.setGroup(group, prefix, "", priority, nameColor), group, false,
+                                    "<green>Suffix for group <white>" + group + "</white> cleared!");
                             return true;
                         case "namecolor":
-                            groupManager.setGroup(group, prefix, suffix, priority, null);
-                            updateAllPlayers();
-                            sendPrefix(sender, "<green>Name color for group <white>" + group + "</white> cleared!");
+                            replyWhenApplied(sender, groupManager.setGroup(group, prefix, suffix, priority, null), group, false,
+                                    "<green>Name color for group <white>" + group + "</white> cleared!");
                             return true;
                         default:
                             sendPrefix(sender, "<red>Unknown field: <white>" + field + "</white> (use prefix|suffix|namecolor)");
@@ -450,12 +505,14 @@ public class PrefixCommand implements CommandExecutor, TabCompleter {
                             }
                             String format = join(args, 3);
                             configManager.setChatFormat(format);
+                            updateAllPlayers();
                             sendPrefix(sender, "<green>Chat format set to: <white>" + format);
                             return true;
                         }
                         if (args.length >= 3 && args[2].equalsIgnoreCase("toggle")) {
                             boolean current = configManager.isChatFormatEnabled();
                             configManager.setChatEnabled(!current);
+                            updateAllPlayers();
                             sendPrefix(sender, "<green>Chat format " + (!current ? "enabled" : "disabled") + "!");
                             return true;
                         }
@@ -562,6 +619,12 @@ public class PrefixCommand implements CommandExecutor, TabCompleter {
                     return true;
                 }
 
+                case "stats": {
+                    require(sender, "simpleprefix.stats");
+                    showStats(sender);
+                    return true;
+                }
+
                 default:
                     showHelp(sender);
                     return true;
@@ -575,6 +638,40 @@ public class PrefixCommand implements CommandExecutor, TabCompleter {
         }
     }
 
+    private void showStats(CommandSender sender) {
+        PluginMetrics m = plugin.getMetrics();
+        header(sender, "Runtime Stats");
+        sendPrefix(sender, "<yellow>Renders: <white>" + m.getRenders() + " <gray>(" + latency(m.getRenderTime()) + ")");
+        sendPrefix(sender, "<yellow>Render cache: <white>" + m.getLegacyCache().getHits() + " <gray>hits, <white>"
+                + m.getLegacyCache().getMisses() + " <gray>misses, <white>" + m.getLegacyCache().size() + "/"
+                + m.getLegacyCache().getMaxSize() + " <gray>entries");
+        sendPrefix(sender, "<yellow>Component cache: <white>" + m.getComponentCache().getHits() + " <gray>hits, <white>"
+                + m.getComponentCache().getMisses() + " <gray>misses");
+        sendPrefix(sender, "<yellow>Team text cache: <white>" + m.getLimitedCache().getHits() + " <gray>hits, <white>"
+                + m.getLimitedCache().getMisses() + " <gray>misses");
+        sendPrefix(sender, "<yellow>Team updates: <white>" + m.getTeamUpdates() + " <gray>applied, <white>"
+                + m.getTeamNoops() + " <gray>skipped");
+        sendPrefix(sender, "<yellow>Scoreboard mutations: <white>" + m.getScoreboardMutations());
+        sendPrefix(sender, "<yellow>Chat formats: <white>" + m.getChatFormatTime().getCount()
+                + " <gray>(" + latency(m.getChatFormatTime()) + ")");
+        sendPrefix(sender, "<yellow>YAML saves: <white>" + m.getSaves() + " <gray>(" + m.getSaveFailures()
+                + " failed, " + latency(m.getSaveTime()) + ")");
+
+        Map<String, Long> events = m.getLuckPermsEvents();
+        if (events.isEmpty()) return;
+        sender.sendMessage("");
+        sendMM(sender, "▸ LuckPerms Events");
+        for (Map.Entry<String, Long> e : events.entrySet()) {
+            sendPrefix(sender, "<yellow>" + e.getKey() + ": <white>" + e.getValue());
+        }
+    }
+
+    private static String latency(LatencyHistogram histogram) {
+        long p99 = histogram.percentileMicros(0.99);
+        return String.format(Locale.ROOT, "avg %.1fµs, p99 %s", histogram.getMeanMicros(),
+                p99 == Long.MAX_VALUE ? ">1s" : "≤" + p99 + "µs");
+    }
+
     private void showHelp(CommandSender sender) {
         sendMM(sender, "&8╔═════════════════════════════════╗");
         sendMM(sender, " " + prefix);
@@ -587,6 +684,7 @@ public class PrefixCommand implements CommandExecutor, TabCompleter {
         sendPrefix(sender, "<#FFA07A>/" + "sp" + " delete - Delete group");
         sendPrefix(sender, "<#FFA07A>/" + "sp" + " migrate luckprefix - Migrate from LuckPrefix");
         sendPrefix(sender, "<#FFA07A>/" + "sp" + " cleanup - Remove empty groups");
+        sendPrefix(sender, "<#FFA07A>/" + "sp" + " stats - Show runtime stats");
         sender.sendMessage("");
         sendMM(sender, "▸ Group Management");
         sendPrefix(sender, "<#FFA07A>/" + "sp" + " set prefix - Set prefix");
@@ -613,7 +711,7 @@ public class PrefixCommand implements CommandExecutor, TabCompleter {
         if (!sender.hasPermission("simpleprefix.use")) return empty;
 
         if (args.length == 1) {
-            return filter(Arrays.asList("help", "reload", "update", "list", "create", "set", "clear", "delete", "save", "format", "migrate", "cleanup"), args[0]);
+            return filter(Arrays.asList("help", "reload", "update", "list", "create", "set", "clear", "delete", "save", "format", "migrate", "cleanup", "stats"), args[0]);
         }
 
         String a0 = args[0].toLowerCase(Locale.ROOT);
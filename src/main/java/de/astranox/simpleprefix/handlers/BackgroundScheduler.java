@@ -0,0 +1,88 @@
+package de.astranox.simpleprefix.handlers;
+
+import de.astranox.simpleprefix.SimplePrefix;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntSupplier;
+
+public class BackgroundScheduler {
+
+    private final SimplePrefix plugin;
+    private final List<Job> jobs = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private BukkitTask task;
+
+    public BackgroundScheduler(SimplePrefix plugin) {
+        this.plugin = plugin;
+    }
+
+    public void every(String name, long initialDelaySeconds, IntSupplier intervalSeconds, BooleanSupplier enabled, Runnable action) {
+        long firstRun = System.nanoTime() + TimeUnit.SECONDS.toNanos(initialDelaySeconds);
+        jobs.add(new Job(name, intervalSeconds, enabled, action, firstRun));
+    }
+
+    public void start() {
+        if (task != null) {
+            return;
+        }
+        task = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::tick, 20L, 20L);
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    private void tick() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            long now = System.nanoTime();
+            for (Job job : jobs) {
+                if (now - job.nextRun < 0) {
+                    continue;
+                }
+                job.nextRun = now + TimeUnit.SECONDS.toNanos(Math.max(1, job.intervalSeconds.getAsInt()));
+
+                if (!job.enabled.getAsBoolean()) {
+                    continue;
+                }
+
+                try {
+                    job.action.run();
+                } catch (Exception e) {
+                    plugin.getLogger().warning("Background job '" + job.name + "' failed: " + e.getMessage());
+                    e.printStackTrace();
+                }
+            }
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private static final class Job {
+        final String name;
+        final IntSupplier intervalSeconds;
+        final BooleanSupplier enabled;
+        final Runnable action;
+        volatile long nextRun;
+
+        Job(String name, IntSupplier intervalSeconds, BooleanSupplier enabled, Runnable action, long nextRun) {
+            this.name = name;
+            this.intervalSeconds = intervalSeconds;
+            this.enabled = enabled;
+            this.action = action;
+            this.nextRun = nextRun;
+        }
+    }
+}
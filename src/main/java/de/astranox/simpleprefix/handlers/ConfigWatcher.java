@@ -6,23 +6,36 @@ import de.astranox.simpleprefix.managers.GroupManager;
 import de.astranox.simpleprefix.managers.TeamManager;
 import org.bukkit.Bukkit;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.file.*;
-import java.util.HashMap;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 public class ConfigWatcher {
 
-    private static final long DEBOUNCE_TIME = 1000; // 1 Sekunde
+    private static final long QUIET_TIME = 500;
+    private static final String CONFIG_FILE = "config.yml";
+    private static final String GROUPS_FILE = "groups.yml";
+    private static final String[] FILES = {CONFIG_FILE, GROUPS_FILE};
     private final SimplePrefix plugin;
     private final ConfigManager configManager;
     private final GroupManager groupManager;
     private final TeamManager teamManager;
-    private final Map<String, Long> lastModified = new HashMap<>();
-    private final AtomicBoolean isSaving = new AtomicBoolean(false);
+    private final Map<String, byte[]> digests = new ConcurrentHashMap<>();
+    private final Map<String, long[]> stats = new ConcurrentHashMap<>();
+    private final Set<String> pending = new LinkedHashSet<>();
+    private long lastEvent;
     private WatchService watchService;
     private Thread watchThread;
+    private boolean pollingNotified;
 
     public ConfigWatcher(SimplePrefix plugin, ConfigManager configManager,
                          GroupManager groupManager, TeamManager teamManager) {
@@ -32,14 +45,20 @@ public class ConfigWatcher {
         this.teamManager = teamManager;
     }
 
-    public void setSaving(boolean saving) {
-        isSaving.set(saving);
+    public void recordWrite(String fileName, byte[] content) {
+        digests.put(fileName, digest(content));
     }
 
     public void start() {
+        Path configPath = plugin.getDataFolder().toPath();
+        for (String fileName : FILES) {
+            byte[] digest = digestOf(configPath.resolve(fileName));
+            if (digest != null) digests.put(fileName, digest);
+            stats.put(fileName, statOf(configPath.resolve(fileName).toFile()));
+        }
+
         try {
             watchService = FileSystems.getDefault().newWatchService();
-            Path configPath = plugin.getDataFolder().toPath();
 
             if (!Files.exists(configPath)) {
                 plugin.getLogger().warning("Config directory does not exist!");
@@ -59,11 +78,42 @@ public class ConfigWatcher {
             plugin.getLogger().info("Config watcher started successfully!");
 
         } catch (IOException e) {
-            plugin.getLogger().severe("Failed to start config watcher!");
+            plugin.getLogger().severe("Failed to start config watcher! Falling back to polling.");
             e.printStackTrace();
         }
     }
 
+    public boolean isActive() {
+        return watchThread != null && watchThread.isAlive();
+    }
+
+    public void poll() {
+        if (isActive()) {
+            return;
+        }
+
+        Path folder = plugin.getDataFolder().toPath();
+        Set<String> changed = new LinkedHashSet<>();
+
+        for (String fileName : FILES) {
+            long[] stat = statOf(folder.resolve(fileName).toFile());
+            long[] known = stats.put(fileName, stat);
+            if (known != null && !Arrays.equals(known, stat)) {
+                changed.add(fileName);
+            }
+        }
+
+        if (!pollingNotified) {
+            pollingNotified = true;
+            plugin.getLogger().warning("Config watcher is not running, polling config files every "
+                    + configManager.getReloadInterval() + "s instead");
+        }
+
+        if (!changed.isEmpty()) {
+            dispatch(changed);
+        }
+    }
+
     public void stop() {
         if (watchThread != null && watchThread.isAlive()) {
             watchThread.interrupt();
@@ -84,49 +134,34 @@ public class ConfigWatcher {
 
         while (!Thread.interrupted()) {
             try {
-                WatchKey key = watchService.poll(1, java.util.concurrent.TimeUnit.SECONDS);
-
-                if (key == null) {
-                    continue;
-                }
-
-                for (WatchEvent<?> event : key.pollEvents()) {
-                    WatchEvent.Kind<?> kind = event.kind();
-
-                    if (kind == StandardWatchEventKinds.OVERFLOW) {
-                        plugin.getLogger().warning("Config watcher overflow!");
-                        continue;
-                    }
-
-                    Path changed = (Path) event.context();
-                    String fileName = changed.toString();
-
-                    if (!shouldProcess(fileName)) {
-                        continue;
-                    }
-
-                    if (isSaving.get()) {
-                        if (configManager.getConfig().getBoolean("settings.debug", false)) {
-                            plugin.getLogger().info("Ignoring change in " + fileName + " (currently saving)");
+                WatchKey key = watchService.poll(pending.isEmpty() ? 1000 : QUIET_TIME / 2, TimeUnit.MILLISECONDS);
+
+                if (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            plugin.getLogger().warning("Config watcher overflow!");
+                            pending.add(CONFIG_FILE);
+                            pending.add(GROUPS_FILE);
+                            lastEvent = System.currentTimeMillis();
+                            continue;
                         }
-                        continue;
-                    }
-
-                    plugin.getLogger().info("Detected external change in: " + fileName);
 
-                    if (fileName.equals("config.yml")) {
-                        handleConfigChange();
+                        String fileName = event.context().toString();
+                        if (shouldProcess(fileName)) {
+                            pending.add(fileName);
+                            lastEvent = System.currentTimeMillis();
+                        }
                     }
 
-                    if (fileName.equals("groups.yml")) {
-                        handleGroupsChange();
+                    if (!key.reset()) {
+                        plugin.getLogger().warning("Config watcher key no longer valid!");
+                        break;
                     }
                 }
 
-                boolean valid = key.reset();
-                if (!valid) {
-                    plugin.getLogger().warning("Config watcher key no longer valid!");
-                    break;
+                if (!pending.isEmpty() && System.currentTimeMillis() - lastEvent >= QUIET_TIME) {
+                    dispatch(pending);
+                    pending.clear();
                 }
 
             } catch (InterruptedException e) {
@@ -142,50 +177,82 @@ public class ConfigWatcher {
     }
 
     private boolean shouldProcess(String fileName) {
-        if (fileName.endsWith(".tmp") || fileName.endsWith(".swp") || fileName.startsWith(".")) {
-            return false;
-        }
+        return fileName.equals(CONFIG_FILE) || fileName.equals(GROUPS_FILE);
+    }
 
-        if (!fileName.equals("config.yml") && !fileName.equals("groups.yml")) {
-            return false;
-        }
+    private synchronized void dispatch(Set<String> files) {
+        Path folder = plugin.getDataFolder().toPath();
+        boolean config = false;
+        boolean groups = false;
 
-        long now = System.currentTimeMillis();
-        Long last = lastModified.get(fileName);
+        for (String fileName : files) {
+            byte[] digest = digestOf(folder.resolve(fileName));
+            if (digest == null) continue;
+
+            byte[] known = digests.put(fileName, digest);
+            if (known != null && Arrays.equals(known, digest)) {
+                if (configManager.isDebugEnabled()) {
+                    plugin.getLogger().info("Ignoring change in " + fileName + " (content unchanged)");
+                }
+                continue;
+            }
 
-        if (last != null && (now - last) < DEBOUNCE_TIME) {
-            return false;
+            plugin.getLogger().info("Detected external change in: " + fileName);
+            config |= fileName.equals(CONFIG_FILE);
+            groups |= fileName.equals(GROUPS_FILE);
         }
 
-        lastModified.put(fileName, now);
-        return true;
+        if (config || groups) {
+            handleChange(config, groups);
+        }
     }
 
-    private void handleConfigChange() {
-        Bukkit.getScheduler().runTaskLater(plugin, () -> {
+    private void handleChange(boolean config, boolean groups) {
+        Bukkit.getScheduler().runTask(plugin, () -> {
             try {
-                plugin.getLogger().info("Reloading config.yml...");
-                configManager.reloadConfig();
-                plugin.updateAllPlayers();
-                plugin.getLogger().info("Config reloaded and players updated!");
+                boolean formatsChanged = false;
+                Set<String> changedGroups = Collections.emptySet();
+
+                if (config) {
+                    plugin.getLogger().info("Reloading config.yml...");
+                    formatsChanged = configManager.reloadConfig();
+                }
+                if (groups) {
+                    plugin.getLogger().info("Reloading groups.yml...");
+                    changedGroups = groupManager.reloadGroups();
+                }
+
+                if (formatsChanged) {
+                    plugin.updateAllPlayers();
+                } else {
+                    plugin.updateGroups(changedGroups);
+                }
+                plugin.getLogger().info("Reloaded " + (config && groups ? "config.yml and groups.yml" : config ? "config.yml" : "groups.yml")
+                        + " and updated players!");
             } catch (Exception e) {
-                plugin.getLogger().severe("Error reloading config: " + e.getMessage());
+                plugin.getLogger().severe("Error reloading configs: " + e.getMessage());
                 e.printStackTrace();
             }
-        }, 10L);
+        });
     }
 
-    private void handleGroupsChange() {
-        Bukkit.getScheduler().runTaskLater(plugin, () -> {
-            try {
-                plugin.getLogger().info("Reloading groups.yml...");
-                groupManager.reloadGroups();
-                plugin.updateAllPlayers();
-                plugin.getLogger().info("Groups reloaded and players updated!");
-            } catch (Exception e) {
-                plugin.getLogger().severe("Error reloading groups: " + e.getMessage());
-                e.printStackTrace();
-            }
-        }, 10L);
+    private static long[] statOf(File file) {
+        return new long[]{file.lastModified(), file.length()};
+    }
+
+    private static byte[] digestOf(Path file) {
+        try {
+            return digest(Files.readAllBytes(file));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static byte[] digest(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 }
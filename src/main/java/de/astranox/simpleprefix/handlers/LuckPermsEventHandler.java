@@ -9,10 +9,6 @@ import net.luckperms.api.event.node.NodeRemoveEvent;
 import net.luckperms.api.event.user.UserDataRecalculateEvent;
 import net.luckperms.api.model.group.Group;
 import net.luckperms.api.model.user.User;
-import org.bukkit.Bukkit;
-import org.bukkit.entity.Player;
-
-import java.util.UUID;
 
 public class LuckPermsEventHandler {
 
@@ -22,6 +18,7 @@ public class LuckPermsEventHandler {
     private final TabChatManager chatManager;
     private final ConfigManager configManager;
     private final GroupManager groupManager;
+    private final PlayerUpdateScheduler updateScheduler;
 
     public LuckPermsEventHandler(SimplePrefix plugin, LuckPermsWrapper luckPermsWrapper, TeamManager teamManager,
                                  TabChatManager chatManager, ConfigManager configManager, GroupManager groupManager) {
@@ -31,6 +28,7 @@ public class LuckPermsEventHandler {
         this.chatManager = chatManager;
         this.configManager = configManager;
         this.groupManager = groupManager;
+        this.updateScheduler = new PlayerUpdateScheduler(plugin, teamManager, groupManager, configManager);
     }
 
     public void register() {
@@ -40,118 +38,64 @@ public class LuckPermsEventHandler {
         eventBus.subscribe(plugin, NodeAddEvent.class, this::onNodeAdd);
         eventBus.subscribe(plugin, NodeRemoveEvent.class, this::onNodeRemove);
         eventBus.subscribe(plugin, GroupDataRecalculateEvent.class, this::onGroupDataRecalculate);
+        updateScheduler.start();
 
         plugin.getLogger().info("LuckPerms event listeners registered!");
     }
 
     private void onUserDataRecalculate(UserDataRecalculateEvent event) {
+        plugin.getMetrics().recordLuckPermsEvent("user_data_recalculate");
         if (!configManager.isAutoUpdateEnabled()) {
             return;
         }
 
-        UUID uuid = event.getUser().getUniqueId();
-
-        Bukkit.getScheduler().runTask(plugin, () -> {
-            Player player = Bukkit.getPlayer(uuid);
-
-            if (player == null || !player.isOnline()) {
-                return;
-            }
-
-            teamManager.updatePlayer(player);
-
-            if (configManager.isDebugEnabled()) {
-                plugin.getLogger().info("Auto-updated " + player.getName() + " (Data recalculated)");
-            }
-        });
+        updateScheduler.markPlayer(event.getUser().getUniqueId());
     }
 
     private void onNodeAdd(NodeAddEvent event) {
+        plugin.getMetrics().recordLuckPermsEvent("node_add");
         if (!configManager.isAutoUpdateEnabled()) {
             return;
         }
 
         if (event.getTarget() instanceof User) {
             User user = (User) event.getTarget();
-            handleNodeChange(user.getUniqueId(), "Node added");
+            updateScheduler.markPlayer(user.getUniqueId());
         }
 
         if (event.getTarget() instanceof Group) {
             Group group = (Group) event.getTarget();
-            handleGroupChange(group.getName(), "Node added to group", true);
+            updateScheduler.markGroup(group.getName());
         }
     }
 
     private void onNodeRemove(NodeRemoveEvent event) {
+        plugin.getMetrics().recordLuckPermsEvent("node_remove");
         if (!configManager.isAutoUpdateEnabled()) {
             return;
         }
 
         if (event.getTarget() instanceof User) {
             User user = (User) event.getTarget();
-            handleNodeChange(user.getUniqueId(), "Node removed");
+            updateScheduler.markPlayer(user.getUniqueId());
         }
 
         if (event.getTarget() instanceof Group) {
             Group group = (Group) event.getTarget();
-            handleGroupChange(group.getName(), "Node removed from group", true);
+            updateScheduler.markGroup(group.getName());
         }
     }
 
     private void onGroupDataRecalculate(GroupDataRecalculateEvent event) {
+        plugin.getMetrics().recordLuckPermsEvent("group_data_recalculate");
         if (!configManager.isAutoUpdateEnabled()) {
             return;
         }
 
-        handleGroupChange(event.getGroup().getName(), "Group data recalculated", true);
+        updateScheduler.markGroup(event.getGroup().getName());
     }
 
-    private void handleNodeChange(UUID uuid, String reason) {
-        Bukkit.getScheduler().runTaskLater(plugin, () -> {
-            Player player = Bukkit.getPlayer(uuid);
-
-            if (player == null || !player.isOnline()) {
-                return;
-            }
-
-            teamManager.updatePlayer(player);
-
-            if (configManager.isDebugEnabled()) {
-                plugin.getLogger().info("Auto-updated " + player.getName() + " (" + reason + ")");
-            }
-        }, 5L);
-    }
-
-    private void handleGroupChange(String groupName, String reason, boolean saveToConfig) {
-        Bukkit.getScheduler().runTaskLater(plugin, () -> {
-            if (saveToConfig) {
-                GroupManager.GroupData groupData = groupManager.getGroup(groupName);
-
-                if (groupData != null) {
-                    groupManager.saveToConfig(groupName);
-
-                    if (configManager.isDebugEnabled()) {
-                        plugin.getLogger().info("Auto-saved group '" + groupName + "' to config");
-                    }
-                }
-            }
-
-            int updatedCount = 0;
-
-            for (Player player : Bukkit.getOnlinePlayers()) {
-                String primaryGroup = luckPermsWrapper.getPrimaryGroup(player);
-
-                if (!primaryGroup.equalsIgnoreCase(groupName)) {
-                    continue;
-                }
-
-                teamManager.updatePlayer(player);
-                updatedCount++;
-            }
-
-            if (configManager.isDebugEnabled() && updatedCount > 0) {
-                plugin.getLogger().info("Auto-updated " + updatedCount + " players in group '" + groupName + "' (" + reason + ")");
-            }
-        }, 10L);
+    public PlayerUpdateScheduler getUpdateScheduler() {
+        return updateScheduler;
     }
 }
@@ -2,6 +2,7 @@ package de.astranox.simpleprefix.handlers;
 
 import de.astranox.simpleprefix.SimplePrefix;
 import de.astranox.simpleprefix.managers.ConfigManager;
+import de.astranox.simpleprefix.managers.PermissionGroupResolver;
 import de.astranox.simpleprefix.managers.TabChatManager;
 import de.astranox.simpleprefix.managers.TeamManager;
 import org.bukkit.Bukkit;
@@ -9,6 +10,7 @@ import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 
@@ -18,13 +20,16 @@ public class PlayerJoinHandler implements Listener {
     private final TeamManager teamManager;
     private final TabChatManager chatManager;
     private final ConfigManager configManager;
+    private final PermissionGroupResolver resolver;
 
     public PlayerJoinHandler(SimplePrefix plugin, TeamManager teamManager,
-                             TabChatManager chatManager, ConfigManager configManager) {
+                             TabChatManager chatManager, ConfigManager configManager,
+                             PermissionGroupResolver resolver) {
         this.plugin = plugin;
         this.teamManager = teamManager;
         this.chatManager = chatManager;
         this.configManager = configManager;
+        this.resolver = resolver;
     }
 
     @EventHandler(priority = EventPriority.MONITOR)
@@ -40,8 +45,16 @@ public class PlayerJoinHandler implements Listener {
         }, configManager.getJoinDelay());
     }
 
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldChange(PlayerChangedWorldEvent event) {
+        Player player = event.getPlayer();
+        resolver.invalidate(player);
+        teamManager.updatePlayer(player);
+    }
+
     @EventHandler(priority = EventPriority.MONITOR)
     public void onPlayerQuit(PlayerQuitEvent event) {
+        resolver.invalidate(event.getPlayer());
         teamManager.removePlayer(event.getPlayer());
 
         if (configManager.isDebugEnabled()) {
@@ -0,0 +1,157 @@
+package de.astranox.simpleprefix.handlers;
+
+import de.astranox.simpleprefix.SimplePrefix;
+import de.astranox.simpleprefix.managers.ConfigManager;
+import de.astranox.simpleprefix.managers.GroupManager;
+import de.astranox.simpleprefix.managers.TeamManager;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public class PlayerUpdateScheduler {
+
+    private static final long SETTLE_TICKS = 2L;
+
+    private final SimplePrefix plugin;
+    private final TeamManager teamManager;
+    private final GroupManager groupManager;
+    private final ConfigManager configManager;
+
+    private final Map<UUID, Long> dirtyPlayers = new ConcurrentHashMap<>();
+    private final Map<String, Long> dirtyGroups = new ConcurrentHashMap<>();
+    private final LongAdder eventsReceived = new LongAdder();
+    private final LongAdder updatesPerformed = new LongAdder();
+    private final LongAdder groupsProcessed = new LongAdder();
+
+    private volatile long currentTick;
+    private BukkitTask task;
+
+    public PlayerUpdateScheduler(SimplePrefix plugin, TeamManager teamManager,
+                                 GroupManager groupManager, ConfigManager configManager) {
+        this.plugin = plugin;
+        this.teamManager = teamManager;
+        this.groupManager = groupManager;
+        this.configManager = configManager;
+    }
+
+    public void start() {
+        if (task != null) {
+            return;
+        }
+        task = Bukkit.getScheduler().runTaskTimer(plugin, this::drain, 1L, 1L);
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    public void markPlayer(UUID uuid) {
+        eventsReceived.increment();
+        dirtyPlayers.putIfAbsent(uuid, currentTick + SETTLE_TICKS);
+    }
+
+    public void markGroup(String groupName) {
+        eventsReceived.increment();
+        dirtyGroups.putIfAbsent(groupName.toLowerCase(), currentTick + SETTLE_TICKS);
+    }
+
+    private void drain() {
+        long tick = ++currentTick;
+
+        if (!dirtyGroups.isEmpty()) {
+            drainGroups(tick);
+        }
+
+        if (dirtyPlayers.isEmpty()) {
+            return;
+        }
+
+        int updated = 0;
+        Iterator<Map.Entry<UUID, Long>> it = dirtyPlayers.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<UUID, Long> e = it.next();
+            if (e.getValue() > tick) {
+                continue;
+            }
+            it.remove();
+
+            Player player = Bukkit.getPlayer(e.getKey());
+            if (player == null || !player.isOnline()) {
+                continue;
+            }
+
+            teamManager.updatePlayer(player);
+            updatesPerformed.increment();
+            updated++;
+        }
+
+        if (updated > 0 && configManager.isDebugEnabled()) {
+            plugin.getLogger().info("Auto-updated " + updated + " players (LuckPerms changes)");
+        }
+    }
+
+    private void drainGroups(long tick) {
+        List<Player> members = new ArrayList<>();
+        Iterator<Map.Entry<String, Long>> it = dirtyGroups.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Long> e = it.next();
+            if (e.getValue() > tick) {
+                continue;
+            }
+            it.remove();
+            groupsProcessed.increment();
+
+            String groupName = e.getKey();
+            if (groupManager.getGroup(groupName) != null) {
+                groupManager.saveToConfig(groupName);
+
+                if (configManager.isDebugEnabled()) {
+                    plugin.getLogger().info("Auto-saved group '" + groupName + "' to config");
+                }
+            }
+
+            for (UUID uuid : teamManager.getMemberIndex().membersOf(groupName)) {
+                dirtyPlayers.remove(uuid);
+                Player player = Bukkit.getPlayer(uuid);
+                if (player != null && player.isOnline()) {
+                    members.add(player);
+                }
+            }
+        }
+
+        if (!members.isEmpty()) {
+            updatesPerformed.add(plugin.getRefreshJob().request(members, null));
+        }
+    }
+
+    public long getEventsReceived() {
+        return eventsReceived.sum();
+    }
+
+    public long getUpdatesPerformed() {
+        return updatesPerformed.sum();
+    }
+
+    public long getGroupsProcessed() {
+        return groupsProcessed.sum();
+    }
+
+    public int getPendingPlayers() {
+        return dirtyPlayers.size();
+    }
+
+    public int getPendingGroups() {
+        return dirtyGroups.size();
+    }
+}
@@ -2,17 +2,24 @@ package de.astranox.simpleprefix.managers;
 
 import de.astranox.simpleprefix.SimplePrefix;
 import de.astranox.simpleprefix.update.UpdateChannel;
+import de.astranox.simpleprefix.util.ComponentParser;
+import de.astranox.simpleprefix.util.FormatTemplate;
 import org.bukkit.configuration.file.FileConfiguration;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 
 public class ConfigManager {
 
     private final SimplePrefix plugin;
     private FileConfiguration config;
     private File configFile;
-    private long lastModified;
+    private volatile Settings settings = Settings.defaults();
 
     public ConfigManager(SimplePrefix plugin) {
         this.plugin = plugin;
@@ -23,115 +30,188 @@ public class ConfigManager {
             plugin.getDataFolder().mkdirs();
         }
         configFile = new File(plugin.getDataFolder(), "config.yml");
-        lastModified = configFile.lastModified();
         if(!configFile.exists()) {
             plugin.saveDefaultConfig();
         }
         config = plugin.getConfig();
+        publish();
     }
 
-    public void reloadConfig() {
+    public boolean reloadConfig() {
+        Settings previous = settings;
         plugin.reloadConfig();
         config = plugin.getConfig();
-        lastModified = configFile.lastModified();
+        publish();
+        ComponentParser.invalidateCache();
         plugin.getLogger().info("Config reloaded!");
+        return !settings.rendersLike(previous);
     }
 
-    public boolean checkAndReload() {
-        long current = configFile.lastModified();
-
-        if (current <= lastModified) {
-            return false;
-        }
+    private void publish() {
+        settings = Settings.from(config, settings);
+    }
 
-        reloadConfig();
-        return true;
+    public Settings getSettings() {
+        return settings;
     }
 
     public boolean isAutoReloadEnabled() {
-        return config.getBoolean("settings.auto-reload.enabled", true);
+        return settings.autoReloadEnabled;
     }
 
     public int getReloadInterval() {
-        return config.getInt("settings.auto-reload.interval", 30);
+        return settings.reloadInterval;
     }
 
     public long getJoinDelay() {
-        return config.getLong("settings.join-delay", 20L);
+        return settings.joinDelay;
     }
 
     public String getTeamPrefix() {
-        return config.getString("settings.team-prefix", "lp_");
+        return settings.teamPrefix;
+    }
+
+    public long getRefreshBudgetNanos() {
+        return settings.refreshBudgetNanos;
+    }
+
+    public boolean isNativeComponentsEnabled() {
+        return settings.nativeComponents;
+    }
+
+    public boolean isSharedTeamsEnabled() {
+        return settings.sharedTeams;
+    }
+
+    public boolean isJmxEnabled() {
+        return settings.jmxEnabled;
+    }
+
+    public boolean isPrometheusEnabled() {
+        return settings.prometheusEnabled;
+    }
+
+    public int getPrometheusInterval() {
+        return settings.prometheusInterval;
+    }
+
+    public String getStorageType() {
+        return settings.storageType;
+    }
+
+    public String getSqliteFile() {
+        return settings.sqliteFile;
+    }
+
+    public boolean isJournalEnabled() {
+        return settings.journalEnabled;
+    }
+
+    public long getJournalCompactBytes() {
+        return settings.journalCompactBytes;
     }
 
     public boolean isDebugEnabled() {
-        return config.getBoolean("settings.debug", false);
+        return settings.debug;
     }
 
     public boolean isAutoUpdateEnabled() {
-        return config.getBoolean("settings.auto-update.enabled", true);
+        return settings.autoUpdateEnabled;
     }
 
     public boolean isChatFormatEnabled() {
-        return config.getBoolean("formats.chat.enabled", true);
+        return settings.chatEnabled;
     }
 
     public String getChatFormat() {
-        return config.getString("formats.chat.format", "{prefix}{player}{suffix}: {message}");
+        return settings.chatFormat;
     }
 
     public void setChatFormat(String format) {
         config.set("formats.chat.format", format);
+        publish();
         saveConfig();
     }
 
     public void setChatEnabled(boolean enabled) {
         config.set("formats.chat.enabled", enabled);
+        publish();
         saveConfig();
     }
 
     public boolean isTabFormatEnabled() {
-        return config.getBoolean("formats.tab.enabled", true);
+        return settings.tabEnabled;
     }
 
     public String getTabFormat() {
-        return config.getString("formats.tab.format", "{prefix}{player}{suffix}");
+        return settings.tabFormat;
+    }
+
+    public FormatTemplate getChatTemplate() {
+        return settings.chatTemplate;
+    }
+
+    public FormatTemplate getTabBeforePlayer() {
+        return settings.tabBeforePlayer;
+    }
+
+    public FormatTemplate getTabAfterPlayer() {
+        return settings.tabAfterPlayer;
     }
 
     public void setTabFormat(String format) {
         config.set("formats.tab.format", format);
+        publish();
         saveConfig();
     }
 
     public void setTabEnabled(boolean enabled) {
         config.set("formats.tab.enabled", enabled);
+        publish();
         saveConfig();
     }
 
     public boolean isUpdateCheckEnabled() {
-        return config.getBoolean("settings.update-check.enabled", true);
+        return settings.updateCheckEnabled;
     }
 
     public int getUpdateCheckInterval() {
-        return config.getInt("settings.update-check.interval", 86400);
+        return settings.updateCheckInterval;
     }
 
     public UpdateChannel getUpdateChannel() {
-        String channel = config.getString("settings.update-check.channel", "stable");
-        return UpdateChannel.fromString(channel);
+        return settings.updateChannel;
     }
 
     public void setUpdateChannel(UpdateChannel channel) {
         config.set("settings.update-check.channel", channel.name().toLowerCase());
+        publish();
         saveConfig();
     }
 
     private void saveConfig() {
+        long start = System.nanoTime();
+        boolean saved = false;
         try {
-            config.save(configFile);
-            lastModified = configFile.lastModified();
+            byte[] content = config.saveToString().getBytes(StandardCharsets.UTF_8);
+            Path target = configFile.toPath();
+            Path temp = target.resolveSibling(configFile.getName() + ".tmp");
+
+            Files.write(temp, content);
+            if (plugin.getConfigWatcher() != null) {
+                plugin.getConfigWatcher().recordWrite(configFile.getName(), content);
+            }
+
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            saved = true;
         } catch (IOException e) {
             e.printStackTrace();
+        } finally {
+            plugin.getMetrics().recordSave(System.nanoTime() - start, saved);
         }
     }
 
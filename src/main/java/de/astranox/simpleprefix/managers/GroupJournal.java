@@ -0,0 +1,170 @@
+package de.astranox.simpleprefix.managers;
+
+import de.astranox.simpleprefix.SimplePrefix;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class GroupJournal {
+
+    private static final String HEADER = "# SimplePrefix group journal v1, compacted into groups.yml\n";
+    private static final char SET = 'S';
+    private static final char DELETE = 'D';
+
+    private final SimplePrefix plugin;
+    private final File file;
+    private volatile long size;
+
+    public GroupJournal(SimplePrefix plugin, File file) {
+        this.plugin = plugin;
+        this.file = file;
+        this.size = file.length();
+    }
+
+    public GroupRegistry replay(GroupRegistry base) {
+        if (!file.exists() || file.length() == 0) {
+            return base;
+        }
+
+        Map<String, GroupManager.GroupData> changes = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        int records = 0;
+
+        try (BufferedReader in = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = in.readLine()) != null) {
+                lineNumber++;
+                if (line.isEmpty() || line.charAt(0) == '#') continue;
+
+                if (!apply(split(line), changes)) {
+                    plugin.getLogger().warning("Ignoring damaged record in " + file.getName() + " at line " + lineNumber);
+                    continue;
+                }
+                records++;
+            }
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to read " + file.getName() + "!");
+            e.printStackTrace();
+        }
+
+        if (records > 0) {
+            plugin.getLogger().info("Replayed " + records + " group edit(s) from " + file.getName());
+        }
+        return base.withChanges(changes);
+    }
+
+    private static boolean apply(List<String> fields, Map<String, GroupManager.GroupData> changes) {
+        String type = fields.get(0);
+
+        if (fields.size() == 2 && type.equals(String.valueOf(DELETE))) {
+            changes.put(fields.get(1), null);
+            return true;
+        }
+
+        if (fields.size() != 6 || !type.equals(String.valueOf(SET))) {
+            return false;
+        }
+
+        try {
+            int priority = Integer.parseInt(fields.get(2));
+            String nameColor = fields.get(5).isEmpty() ? null : fields.get(5);
+            changes.remove(fields.get(1));
+            changes.put(fields.get(1), new GroupManager.GroupData(fields.get(3), fields.get(4), priority, nameColor));
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    public void append(Collection<String> groupNames, GroupRegistry registry) throws IOException {
+        StringBuilder out = new StringBuilder(groupNames.size() * 64);
+        if (size == 0) {
+            out.append(HEADER);
+        }
+
+        for (String groupName : groupNames) {
+            GroupManager.GroupData data = registry.get(groupName);
+            if (data == null) {
+                out.append(DELETE).append('\t');
+                escape(out, groupName).append('\n');
+                continue;
+            }
+
+            out.append(SET).append('\t');
+            escape(out, registry.canonicalName(groupName)).append('\t').append(data.priority).append('\t');
+            escape(out, data.prefix != null ? data.prefix : "").append('\t');
+            escape(out, data.suffix != null ? data.suffix : "").append('\t');
+            escape(out, data.nameColor != null ? data.nameColor : "").append('\n');
+        }
+
+        byte[] bytes = out.toString().getBytes(StandardCharsets.UTF_8);
+        Files.write(file.toPath(), bytes, StandardOpenOption.CREATE, StandardOpenOption.APPEND,
+                StandardOpenOption.WRITE, StandardOpenOption.DSYNC);
+        size += bytes.length;
+    }
+
+    public void clear() throws IOException {
+        Files.deleteIfExists(file.toPath());
+        size = 0;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private static StringBuilder escape(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                default:
+                    out.append(c);
+            }
+        }
+        return out;
+    }
+
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>(6);
+        StringBuilder field = new StringBuilder();
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\t') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\\' && i + 1 < line.length()) {
+                char next = line.charAt(++i);
+                field.append(next == 't' ? '\t' : next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
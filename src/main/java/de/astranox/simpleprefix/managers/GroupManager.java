@@ -1,98 +1,195 @@
 package de.astranox.simpleprefix.managers;
 
 import de.astranox.simpleprefix.SimplePrefix;
-import org.bukkit.Bukkit;
-import org.bukkit.configuration.ConfigurationSection;
-import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
+import de.astranox.simpleprefix.util.ComponentParser;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.StandardCopyOption;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 public class GroupManager {
 
     private final SimplePrefix plugin;
     private final LuckPermsWrapper luckPermsWrapper;
     private final boolean useLuckPerms;
-    private File groupsFile;
-    private FileConfiguration groupsConfig;
-    private long lastModified;
+    private final Object registryLock = new Object();
+    private volatile GroupRegistry registry = GroupRegistry.empty();
+    private final LuckPermsSync luckPermsSync;
+    private GroupStore store;
+    private GroupWriter writer;
 
     public GroupManager(SimplePrefix plugin, LuckPermsWrapper luckPermsWrapper, boolean useLuckPerms) {
         this.plugin = plugin;
         this.luckPermsWrapper = luckPermsWrapper;
         this.useLuckPerms = useLuckPerms;
+        this.luckPermsSync = useLuckPerms && luckPermsWrapper != null ? new LuckPermsSync(plugin, luckPermsWrapper) : null;
     }
 
     public void loadGroups() {
         if (!plugin.getDataFolder().exists()) {
             plugin.getDataFolder().mkdirs();
         }
-        groupsFile = new File(plugin.getDataFolder(), "groups.yml");
+        File groupsFile = new File(plugin.getDataFolder(), "groups.yml");
 
         if(!groupsFile.exists()) {
             plugin.saveResource("groups.yml", false);
         }
 
-        groupsConfig = YamlConfiguration.loadConfiguration(groupsFile);
-        lastModified = groupsFile.lastModified();
+        store = openStore(groupsFile);
+        synchronized (registryLock) {
+            try {
+                registry = store.load();
+            } catch (IOException e) {
+                plugin.getLogger().severe("Failed to load groups from " + store.getName() + "!");
+                e.printStackTrace();
+            }
+        }
+        writer = new GroupWriter(plugin, () -> registry, store);
 
         if (useLuckPerms) {
             applyConfigOverridesToLuckPerms();
         }
     }
 
-    public void reloadGroups() {
-        groupsConfig = YamlConfiguration.loadConfiguration(groupsFile);
-        lastModified = groupsFile.lastModified();
+    private GroupStore openStore(File groupsFile) {
+        GroupStore yaml = new YamlGroupStore(plugin, groupsFile,
+                new GroupJournal(plugin, new File(plugin.getDataFolder(), "groups.journal")));
+
+        if (!"sqlite".equals(plugin.getConfigManager().getStorageType())) {
+            return yaml;
+        }
+
+        File databaseFile = new File(plugin.getConfigManager().getSqliteFile());
+        if (!databaseFile.isAbsolute()) {
+            databaseFile = new File(plugin.getDataFolder(), databaseFile.getPath());
+        }
+
+        SqliteGroupStore sqlite = new SqliteGroupStore(plugin, databaseFile);
+        try {
+            sqlite.open();
+            sqlite.importFrom(yaml);
+            return sqlite;
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to open " + databaseFile.getPath() + ", falling back to groups.yml!");
+            e.printStackTrace();
+            sqlite.close(null);
+            return yaml;
+        }
+    }
+
+    public boolean isSharedStore() {
+        return store instanceof SqliteGroupStore;
+    }
+
+    public boolean hasExternalChanges() {
+        return store != null && store.hasExternalChanges();
+    }
+
+    public String getStoreName() {
+        return store != null ? store.getName() : "groups.yml";
+    }
+
+    public void flush() {
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    public Set<String> reloadGroups() {
+        GroupRegistry next;
+        try {
+            next = store.refresh(registry);
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to reload groups from " + store.getName() + "!");
+            e.printStackTrace();
+            return Collections.emptySet();
+        }
+        Set<String> changed;
+
+        synchronized (registryLock) {
+            GroupRegistry previous = registry;
+            changed = previous.changedGroups(next);
+
+            if (!useLuckPerms && !previous.sameRanking(next)) {
+                changed.addAll(previous.asMap().keySet());
+                changed.addAll(next.asMap().keySet());
+            }
+            if (!changed.isEmpty()) {
+                registry = next;
+            }
+        }
+
+        if (changed.isEmpty()) {
+            plugin.getLogger().info("Groups config reloaded, no groups changed!");
+            return changed;
+        }
+
+        ComponentParser.invalidateCache();
 
         if (useLuckPerms) {
-            applyConfigOverridesToLuckPerms();
+            syncToLuckPerms(changed);
         }
 
-        plugin.getLogger().info("Groups config reloaded" + (useLuckPerms ? " and synced to LuckPerms!" : "!"));
+        plugin.getLogger().info("Groups config reloaded, " + changed.size() + " group(s) changed"
+                + (useLuckPerms ? " and synced to LuckPerms!" : "!"));
+        if (plugin.getConfigManager().isDebugEnabled()) {
+            plugin.getLogger().info("Changed groups: " + changed);
+        }
+        return changed;
     }
 
-    public boolean checkAndReload() {
-        long current = groupsFile.lastModified();
+    private void syncToLuckPerms(Set<String> groupNames) {
+        if (luckPermsSync == null) {
+            return;
+        }
 
-        if (current <= lastModified) {
-            return false;
+        Map<String, GroupData> groups = new LinkedHashMap<>();
+        for (String groupName : groupNames) {
+            GroupData data = registry.get(groupName);
+            if (data != null) {
+                groups.put(registry.canonicalName(groupName), data);
+            }
         }
 
-        reloadGroups();
-        return true;
+        if (!groups.isEmpty()) {
+            luckPermsSync.sync(groups);
+        }
     }
 
-    public boolean createGroup(String groupName, String prefix, String suffix, int priority, String nameColor) {
+    public CompletableFuture<Boolean> createGroup(String groupName, String prefix, String suffix, int priority, String nameColor) {
         if (groupExists(groupName)) {
             plugin.getLogger().warning("Group '" + groupName + "' already exists!");
-            return false;
+            return CompletableFuture.completedFuture(false);
         }
 
-        if (useLuckPerms && luckPermsWrapper != null) {
-            boolean created = luckPermsWrapper.createGroup(groupName);
+        if (!useLuckPerms || luckPermsWrapper == null) {
+            saveToConfig(groupName, prefix, suffix, priority, nameColor);
+            plugin.getLogger().info("Created group '" + groupName + "' in SimplePrefix!");
+            return CompletableFuture.completedFuture(true);
+        }
 
+        return luckPermsWrapper.createGroup(groupName).thenCompose(created -> {
             if (!created) {
                 plugin.getLogger().severe("Failed to create group '" + groupName + "' in LuckPerms!");
-                return false;
+                return CompletableFuture.completedFuture(false);
             }
 
-            luckPermsWrapper.setGroupPrefix(groupName, prefix, priority);
-            luckPermsWrapper.setGroupSuffix(groupName, suffix, priority);
-
-            plugin.getLogger().info("Created group '" + groupName + "' in LuckPerms!");
-        }
-
-        saveToConfig(groupName, prefix, suffix, priority, nameColor);
-
-        plugin.getLogger().info("Created group '" + groupName + "' in SimplePrefix!");
+            return luckPermsWrapper.applyPrefixSuffix(groupName, prefix, suffix, priority).handle((v, e) -> {
+                if (e != null) {
+                    plugin.getLogger().warning("Failed to set prefix/suffix of '" + groupName + "' in LuckPerms: " + e.getMessage());
+                }
 
-        return true;
+                plugin.getLogger().info("Created group '" + groupName + "' in LuckPerms!");
+                saveToConfig(groupName, prefix, suffix, priority, nameColor);
+                plugin.getLogger().info("Created group '" + groupName + "' in SimplePrefix!");
+                return true;
+            });
+        });
     }
 
     public boolean groupExists(String groupName) {
@@ -100,151 +197,102 @@ public class GroupManager {
             return luckPermsWrapper.groupExists(groupName);
         }
 
-        return groupsConfig.getConfigurationSection("groups." + groupName) != null;
+        return registry.contains(groupName);
     }
 
-    public boolean deleteGroupCompletely(String groupName) {
+    public CompletableFuture<Boolean> deleteGroupCompletely(String groupName) {
         if (groupName.equalsIgnoreCase("default")) {
             plugin.getLogger().warning("Cannot delete default group!");
-            return false;
+            return CompletableFuture.completedFuture(false);
         }
 
         if (!groupExists(groupName)) {
             plugin.getLogger().warning("Group '" + groupName + "' does not exist!");
-            return false;
+            return CompletableFuture.completedFuture(false);
         }
 
-        if (useLuckPerms && luckPermsWrapper != null) {
-            boolean deleted = luckPermsWrapper.deleteGroup(groupName);
+        CompletableFuture<Boolean> luckPermsDelete = useLuckPerms && luckPermsWrapper != null
+                ? luckPermsWrapper.deleteGroup(groupName)
+                : CompletableFuture.completedFuture(false);
 
+        return luckPermsDelete.thenApply(deleted -> {
             if (deleted) {
                 plugin.getLogger().info("Deleted group '" + groupName + "' from LuckPerms!");
             }
-        }
-
-        groupsConfig.set("groups." + groupName, null);
 
-        try {
-            groupsConfig.save(groupsFile);
-            lastModified = groupsFile.lastModified();
+            removeFromConfig(groupName);
             plugin.getLogger().info("Deleted group '" + groupName + "' from SimplePrefix!");
             return true;
-        } catch (IOException e) {
-            plugin.getLogger().severe("Failed to save groups.yml!");
-            e.printStackTrace();
-            return false;
-        }
+        });
     }
 
-    public void applyConfigOverridesToLuckPerms() {
+    public CompletableFuture<LuckPermsSync.SyncResult> applyConfigOverridesToLuckPerms() {
         if (!useLuckPerms || luckPermsWrapper == null) {
-            return;
+            return CompletableFuture.completedFuture(null);
         }
 
-        ConfigurationSection groups = groupsConfig.getConfigurationSection("groups");
-
-        if (groups == null) {
-            plugin.getLogger().warning("No groups section found in groups.yml!");
-            return;
-        }
-
-        int count = 0;
-        for (String groupName : groups.getKeys(false)) {
-            String prefix = groups.getString(groupName + ".prefix");
-            String suffix = groups.getString(groupName + ".suffix");
-            int priority = groups.getInt(groupName + ".priority", 0);
-
-            if (!luckPermsWrapper.groupExists(groupName)) {
-                plugin.getLogger().warning("Group '" + groupName + "' does not exist in LuckPerms!");
-                continue;
-            }
-
-            boolean prefixSuccess = luckPermsWrapper.setGroupPrefix(groupName, prefix, priority);
-            boolean suffixSuccess = luckPermsWrapper.setGroupSuffix(groupName, suffix, priority);
-
-            if (prefixSuccess || suffixSuccess) {
-                count++;
-            }
+        if (registry.size() == 0) {
+            plugin.getLogger().warning("No groups found in " + store.getName() + "!");
+            return CompletableFuture.completedFuture(null);
         }
 
-        plugin.getLogger().info("Applied " + count + " group overrides to LuckPerms!");
+        return luckPermsSync.sync(registry.asMap());
     }
 
     public Map<String, GroupData> getAllGroups() {
-        Map<String, GroupData> result = new HashMap<>();
-
-        ConfigurationSection groups = groupsConfig.getConfigurationSection("groups");
-
-        if (groups == null) {
-            return result;
-        }
-
-        for (String groupName : groups.getKeys(false)) {
-            String prefix = groups.getString(groupName + ".prefix", "");
-            String suffix = groups.getString(groupName + ".suffix", "");
-            int priority = groups.getInt(groupName + ".priority", 999);
-            String nameColor = groups.getString(groupName + ".nameColor");
-
-            result.put(groupName, new GroupData(prefix, suffix, priority, nameColor));
-        }
-
-        return result;
+        return registry.asMap();
     }
 
     public GroupData getGroup(String groupName) {
-        ConfigurationSection groupSection = groupsConfig.getConfigurationSection("groups." + groupName);
-
-        if (groupSection == null) {
-            return null;
-        }
-
-        String prefix = groupSection.getString("prefix", "");
-        String suffix = groupSection.getString("suffix", "");
-        int priority = groupSection.getInt("priority", 999);
-        String nameColor = groupSection.getString("nameColor");
+        return registry.get(groupName);
+    }
 
-        return new GroupData(prefix, suffix, priority, nameColor);
+    public GroupRegistry getRegistry() {
+        return registry;
     }
 
-    public void setGroup(String groupName, String prefix, String suffix, int priority) {
-        setGroup(groupName, prefix, suffix, priority, null);
+    public CompletableFuture<Boolean> setGroup(String groupName, String prefix, String suffix, int priority) {
+        return setGroup(groupName, prefix, suffix, priority, null);
     }
 
-    public void setGroup(String groupName, String prefix, String suffix, int priority, String nameColor) {
+    public CompletableFuture<Boolean> setGroup(String groupName, String prefix, String suffix, int priority, String nameColor) {
+        CompletableFuture<Boolean> luckPermsUpdate = CompletableFuture.completedFuture(true);
+
         if (useLuckPerms && luckPermsWrapper != null) {
             if (!luckPermsWrapper.groupExists(groupName)) {
                 plugin.getLogger().warning("Group '" + groupName + "' does not exist in LuckPerms!");
+                luckPermsUpdate = CompletableFuture.completedFuture(false);
             } else {
-                luckPermsWrapper.setGroupPrefix(groupName, prefix, priority);
-                luckPermsWrapper.setGroupSuffix(groupName, suffix, priority);
+                luckPermsUpdate = pushToLuckPerms(groupName, prefix, suffix, priority);
             }
         }
 
         saveToConfig(groupName, prefix, suffix, priority, nameColor);
-
-        Bukkit.getScheduler().runTaskLater(plugin, () -> {
-            plugin.updateAllPlayers();
-        }, 10L);
+        return luckPermsUpdate;
     }
 
-    public void deleteGroup(String groupName) {
+    public CompletableFuture<Boolean> deleteGroup(String groupName) {
+        CompletableFuture<Boolean> luckPermsUpdate = CompletableFuture.completedFuture(true);
+
         if (useLuckPerms && luckPermsWrapper != null) {
             if (luckPermsWrapper.groupExists(groupName)) {
-                luckPermsWrapper.setGroupPrefix(groupName, "", 0);
-                luckPermsWrapper.setGroupSuffix(groupName, "", 0);
+                luckPermsUpdate = pushToLuckPerms(groupName, "", "", 0);
             }
         }
 
-        groupsConfig.set("groups." + groupName, null);
+        removeFromConfig(groupName);
+        plugin.getLogger().info("Removed group '" + groupName + "' from config!");
+        return luckPermsUpdate;
+    }
 
-        try {
-            groupsConfig.save(groupsFile);
-            lastModified = groupsFile.lastModified();
-            plugin.getLogger().info("Removed group '" + groupName + "' from config!");
-        } catch (IOException e) {
-            plugin.getLogger().severe("Failed to save groups.yml!");
-            e.printStackTrace();
-        }
+    private CompletableFuture<Boolean> pushToLuckPerms(String groupName, String prefix, String suffix, int priority) {
+        return luckPermsWrapper.applyPrefixSuffix(groupName, prefix, suffix, priority).handle((v, e) -> {
+            if (e != null) {
+                plugin.getLogger().warning("Failed to update group '" + groupName + "' in LuckPerms: " + e.getMessage());
+                return false;
+            }
+            return true;
+        });
     }
 
     public void saveToConfig(String groupName) {
@@ -258,35 +306,34 @@ public class GroupManager {
         saveToConfig(groupName, data.prefix, data.suffix, data.priority, data.nameColor);
     }
 
-    private void saveToConfig(String groupName, String prefix, String suffix, int priority, String nameColor) {
-        if (plugin.getConfigWatcher() != null) {
-            plugin.getConfigWatcher().setSaving(true);
+    private void removeFromConfig(String groupName) {
+        String key;
+        synchronized (registryLock) {
+            key = registry.canonicalName(groupName);
+            registry = registry.without(key);
         }
+        writer.markDirty(key);
+    }
 
-        groupsConfig.set("groups." + groupName + ".prefix", prefix != null && !prefix.isEmpty() ? prefix : "");
-        groupsConfig.set("groups." + groupName + ".suffix", suffix != null && !suffix.isEmpty() ? suffix : "");
-        groupsConfig.set("groups." + groupName + ".priority", priority);
-
-        if (nameColor != null && !nameColor.isEmpty()) {
-            groupsConfig.set("groups." + groupName + ".nameColor", nameColor);
+    private void saveToConfig(String groupName, String prefix, String suffix, int priority, String nameColor) {
+        synchronized (registryLock) {
+            groupName = registry.canonicalName(groupName);
+
+            GroupData existing = registry.get(groupName);
+            String color = nameColor != null && !nameColor.isEmpty()
+                    ? nameColor
+                    : (existing != null ? existing.nameColor : null);
+
+            registry = registry.with(groupName, new GroupData(
+                    prefix != null ? prefix : "",
+                    suffix != null ? suffix : "",
+                    priority,
+                    color));
         }
+        writer.markDirty(groupName);
 
-        try {
-            groupsConfig.save(groupsFile);
-            lastModified = groupsFile.lastModified();
-
-            if (plugin.getConfigManager().isDebugEnabled()) {
-                plugin.getLogger().info("Saved group '" + groupName + "' to config!");
-            }
-        } catch (IOException e) {
-            plugin.getLogger().severe("Failed to save groups.yml!");
-            e.printStackTrace();
-        } finally {
-            Bukkit.getScheduler().runTaskLater(plugin, () -> {
-                if (plugin.getConfigWatcher() != null) {
-                    plugin.getConfigWatcher().setSaving(false);
-                }
-            }, 5L);
+        if (plugin.getConfigManager().isDebugEnabled()) {
+            plugin.getLogger().info("Queued group '" + groupName + "' for saving!");
         }
     }
 
@@ -306,5 +353,21 @@ public class GroupManager {
             this.priority = priority;
             this.nameColor = nameColor;
         }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof GroupData)) return false;
+            GroupData other = (GroupData) o;
+            return priority == other.priority
+                    && Objects.equals(prefix, other.prefix)
+                    && Objects.equals(suffix, other.suffix)
+                    && Objects.equals(nameColor, other.nameColor);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(prefix, suffix, priority, nameColor);
+        }
     }
 }
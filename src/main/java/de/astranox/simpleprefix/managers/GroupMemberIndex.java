@@ -0,0 +1,54 @@
+package de.astranox.simpleprefix.managers;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class GroupMemberIndex {
+
+    private final Map<String, Set<UUID>> members = new ConcurrentHashMap<>();
+    private final Map<UUID, String> groups = new ConcurrentHashMap<>();
+
+    public void track(UUID uuid, String groupName) {
+        String key = groupName.toLowerCase();
+        String previous = groups.put(uuid, key);
+
+        if (key.equals(previous)) {
+            return;
+        }
+
+        if (previous != null) {
+            removeMember(previous, uuid);
+        }
+        members.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(uuid);
+    }
+
+    public void remove(UUID uuid) {
+        String previous = groups.remove(uuid);
+        if (previous != null) {
+            removeMember(previous, uuid);
+        }
+    }
+
+    private void removeMember(String key, UUID uuid) {
+        members.computeIfPresent(key, (k, set) -> {
+            set.remove(uuid);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    public Set<UUID> membersOf(String groupName) {
+        Set<UUID> set = members.get(groupName.toLowerCase());
+        return set != null ? Collections.unmodifiableSet(set) : Collections.emptySet();
+    }
+
+    public String groupOf(UUID uuid) {
+        return groups.get(uuid);
+    }
+
+    public int size() {
+        return groups.size();
+    }
+}
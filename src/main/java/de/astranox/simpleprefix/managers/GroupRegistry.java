@@ -0,0 +1,160 @@
+package de.astranox.simpleprefix.managers;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+public final class GroupRegistry {
+
+    private static final GroupRegistry EMPTY = new GroupRegistry(new TreeMap<>(String.CASE_INSENSITIVE_ORDER));
+
+    private final TreeMap<String, GroupManager.GroupData> index;
+    private final Map<String, GroupManager.GroupData> groups;
+    private final List<RankedGroup> byPriority;
+
+    private GroupRegistry(TreeMap<String, GroupManager.GroupData> groups) {
+        this.index = groups;
+        this.groups = Collections.unmodifiableMap(groups);
+
+        List<RankedGroup> ranked = new ArrayList<>(groups.size());
+        for (Map.Entry<String, GroupManager.GroupData> e : groups.entrySet()) {
+            ranked.add(new RankedGroup(e.getKey(), e.getValue()));
+        }
+        ranked.sort(Comparator.comparingInt(r -> r.data.priority));
+        this.byPriority = Collections.unmodifiableList(ranked);
+    }
+
+    public static GroupRegistry empty() {
+        return EMPTY;
+    }
+
+    public static GroupRegistry fromConfig(ConfigurationSection section) {
+        TreeMap<String, GroupManager.GroupData> groups = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+        if (section == null) {
+            return new GroupRegistry(groups);
+        }
+
+        for (String groupName : section.getKeys(false)) {
+            ConfigurationSection groupSection = section.getConfigurationSection(groupName);
+            if (groupSection != null) {
+                groups.put(groupName, readGroup(groupSection));
+            }
+        }
+
+        return new GroupRegistry(groups);
+    }
+
+    public static GroupManager.GroupData readGroup(ConfigurationSection groupSection) {
+        String prefix = groupSection.getString("prefix", "");
+        String suffix = groupSection.getString("suffix", "");
+        int priority = groupSection.getInt("priority", 999);
+        String nameColor = groupSection.getString("nameColor");
+
+        return new GroupManager.GroupData(prefix, suffix, priority, nameColor);
+    }
+
+    public GroupManager.GroupData get(String groupName) {
+        if (groupName == null) return null;
+        return index.get(groupName);
+    }
+
+    public String canonicalName(String groupName) {
+        String key = index.ceilingKey(groupName);
+        return key != null && key.equalsIgnoreCase(groupName) ? key : groupName;
+    }
+
+    public boolean contains(String groupName) {
+        return groupName != null && index.containsKey(groupName);
+    }
+
+    public Map<String, GroupManager.GroupData> asMap() {
+        return groups;
+    }
+
+    public List<RankedGroup> byPriority() {
+        return byPriority;
+    }
+
+    public int size() {
+        return groups.size();
+    }
+
+    public Set<String> changedGroups(GroupRegistry next) {
+        Set<String> changed = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        for (Map.Entry<String, GroupManager.GroupData> e : index.entrySet()) {
+            if (!e.getValue().equals(next.get(e.getKey()))) {
+                changed.add(e.getKey());
+            }
+        }
+        for (String groupName : next.index.keySet()) {
+            if (!index.containsKey(groupName)) {
+                changed.add(groupName);
+            }
+        }
+        return changed;
+    }
+
+    public boolean sameRanking(GroupRegistry next) {
+        if (size() != next.size()) return false;
+
+        for (Map.Entry<String, GroupManager.GroupData> e : index.entrySet()) {
+            GroupManager.GroupData other = next.get(e.getKey());
+            if (other == null || other.priority != e.getValue().priority) return false;
+        }
+        return true;
+    }
+
+    public GroupRegistry with(String groupName, GroupManager.GroupData data) {
+        TreeMap<String, GroupManager.GroupData> copy = copy();
+        copy.remove(groupName);
+        copy.put(groupName, data);
+        return new GroupRegistry(copy);
+    }
+
+    public GroupRegistry withChanges(Map<String, GroupManager.GroupData> changes) {
+        if (changes.isEmpty()) return this;
+
+        TreeMap<String, GroupManager.GroupData> copy = copy();
+        for (Map.Entry<String, GroupManager.GroupData> e : changes.entrySet()) {
+            copy.remove(e.getKey());
+            if (e.getValue() != null) {
+                copy.put(e.getKey(), e.getValue());
+            }
+        }
+        return new GroupRegistry(copy);
+    }
+
+    public GroupRegistry without(String groupName) {
+        if (!contains(groupName)) return this;
+
+        TreeMap<String, GroupManager.GroupData> copy = copy();
+        copy.remove(groupName);
+        return new GroupRegistry(copy);
+    }
+
+    private TreeMap<String, GroupManager.GroupData> copy() {
+        TreeMap<String, GroupManager.GroupData> copy = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        copy.putAll(index);
+        return copy;
+    }
+
+    public static final class RankedGroup {
+        public final String name;
+        public final GroupManager.GroupData data;
+        public final String permission;
+
+        RankedGroup(String name, GroupManager.GroupData data) {
+            this.name = name;
+            this.data = data;
+            this.permission = "simpleprefix.group." + name.toLowerCase();
+        }
+    }
+}
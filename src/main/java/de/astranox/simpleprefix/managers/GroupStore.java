@@ -0,0 +1,19 @@
+package de.astranox.simpleprefix.managers;
+
+import java.io.IOException;
+import java.util.Collection;
+
+public interface GroupStore {
+
+    String getName();
+
+    GroupRegistry load() throws IOException;
+
+    GroupRegistry refresh(GroupRegistry current) throws IOException;
+
+    void save(Collection<String> groupNames, GroupRegistry registry) throws IOException;
+
+    boolean hasExternalChanges();
+
+    void close(GroupRegistry registry);
+}
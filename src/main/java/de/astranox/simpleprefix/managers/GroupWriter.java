@@ -0,0 +1,109 @@
+package de.astranox.simpleprefix.managers;
+
+import de.astranox.simpleprefix.SimplePrefix;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+public class GroupWriter {
+
+    private static final long WRITE_DELAY_MS = 500;
+    private static final long MAX_RETRY_DELAY_MS = 60_000;
+
+    private final SimplePrefix plugin;
+    private final Supplier<GroupRegistry> snapshot;
+    private final GroupStore store;
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    private final Object writeLock = new Object();
+    private final ScheduledExecutorService executor;
+    private long retryDelayMs = WRITE_DELAY_MS;
+
+    public GroupWriter(SimplePrefix plugin, Supplier<GroupRegistry> snapshot, GroupStore store) {
+        this.plugin = plugin;
+        this.snapshot = snapshot;
+        this.store = store;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "SimplePrefix-GroupWriter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void markDirty(String groupName) {
+        dirty.add(groupName);
+
+        if (executor.isShutdown()) {
+            writePending();
+            return;
+        }
+
+        if (scheduled.compareAndSet(false, true)) {
+            executor.schedule(this::writePending, WRITE_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void flush() {
+        executor.shutdown();
+
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        writePending();
+
+        synchronized (writeLock) {
+            store.close(snapshot.get());
+        }
+    }
+
+    private void writePending() {
+        scheduled.set(false);
+
+        synchronized (writeLock) {
+            if (dirty.isEmpty()) {
+                return;
+            }
+
+            List<String> groups = new ArrayList<>(dirty);
+            dirty.removeAll(groups);
+
+            long start = System.nanoTime();
+            try {
+                store.save(groups, snapshot.get());
+                plugin.getMetrics().recordSave(System.nanoTime() - start, true);
+                retryDelayMs = WRITE_DELAY_MS;
+
+                if (plugin.getConfigManager().isDebugEnabled()) {
+                    plugin.getLogger().info("Saved " + groups.size() + " changed group(s) to " + store.getName() + ": " + groups);
+                }
+            } catch (IOException e) {
+                plugin.getMetrics().recordSave(System.nanoTime() - start, false);
+                dirty.addAll(groups);
+
+                if (executor.isShutdown()) {
+                    plugin.getLogger().log(Level.SEVERE, "Failed to save " + store.getName() + "!", e);
+                    return;
+                }
+
+                long delay = retryDelayMs;
+                retryDelayMs = Math.min(delay * 2, MAX_RETRY_DELAY_MS);
+                plugin.getLogger().log(Level.SEVERE, "Failed to save " + store.getName() + ", retrying in " + delay + "ms", e);
+                if (scheduled.compareAndSet(false, true)) {
+                    executor.schedule(this::writePending, delay, TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package de.astranox.simpleprefix.managers;
+
+import de.astranox.simpleprefix.SimplePrefix;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LuckPermsSync {
+
+    private static final int MAX_PARALLEL = 4;
+
+    private final SimplePrefix plugin;
+    private final LuckPermsWrapper luckPermsWrapper;
+
+    public LuckPermsSync(SimplePrefix plugin, LuckPermsWrapper luckPermsWrapper) {
+        this.plugin = plugin;
+        this.luckPermsWrapper = luckPermsWrapper;
+    }
+
+    public CompletableFuture<SyncResult> sync(Map<String, GroupManager.GroupData> groups) {
+        long start = System.nanoTime();
+        List<Map.Entry<String, GroupManager.GroupData>> pending = new ArrayList<>();
+        int unchanged = 0;
+        int missing = 0;
+
+        for (Map.Entry<String, GroupManager.GroupData> e : groups.entrySet()) {
+            String groupName = e.getKey();
+            GroupManager.GroupData data = e.getValue();
+
+            if (!luckPermsWrapper.groupExists(groupName)) {
+                plugin.getLogger().warning("Group '" + groupName + "' does not exist in LuckPerms!");
+                missing++;
+                continue;
+            }
+
+            if (luckPermsWrapper.hasPrefixSuffix(groupName, data.prefix, data.suffix, data.priority)) {
+                unchanged++;
+                continue;
+            }
+
+            pending.add(e);
+        }
+
+        AtomicInteger applied = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        Iterator<Map.Entry<String, GroupManager.GroupData>> queue = pending.iterator();
+
+        int lanes = Math.min(MAX_PARALLEL, pending.size());
+        CompletableFuture<?>[] running = new CompletableFuture<?>[lanes];
+        for (int i = 0; i < lanes; i++) {
+            running[i] = next(queue, applied, failed);
+        }
+
+        int skipped = unchanged;
+        int absent = missing;
+        return CompletableFuture.allOf(running).thenApply(v -> {
+            SyncResult result = new SyncResult(applied.get(), skipped, absent, failed.get(),
+                    (System.nanoTime() - start) / 1_000_000L);
+            plugin.getLogger().info("Applied " + result.applied + " group overrides to LuckPerms in "
+                    + result.millis + "ms (" + result.unchanged + " unchanged, "
+                    + result.missing + " missing, " + result.failed + " failed)");
+            return result;
+        });
+    }
+
+    private CompletableFuture<Void> next(Iterator<Map.Entry<String, GroupManager.GroupData>> queue,
+                                         AtomicInteger applied, AtomicInteger failed) {
+        Map.Entry<String, GroupManager.GroupData> e;
+        synchronized (queue) {
+            if (!queue.hasNext()) {
+                return CompletableFuture.completedFuture(null);
+            }
+            e = queue.next();
+        }
+
+        GroupManager.GroupData data = e.getValue();
+        return luckPermsWrapper.applyPrefixSuffix(e.getKey(), data.prefix, data.suffix, data.priority)
+                .handle((v, ex) -> {
+                    if (ex != null) {
+                        failed.incrementAndGet();
+                        plugin.getLogger().warning("Failed to sync group '" + e.getKey() + "' to LuckPerms: " + ex.getMessage());
+                    } else {
+                        applied.incrementAndGet();
+                    }
+                    return null;
+                })
+                .thenCompose(v -> next(queue, applied, failed));
+    }
+
+    public static class SyncResult {
+        public final int applied;
+        public final int unchanged;
+        public final int missing;
+        public final int failed;
+        public final long millis;
+
+        public SyncResult(int applied, int unchanged, int missing, int failed, long millis) {
+            this.applied = applied;
+            this.unchanged = unchanged;
+            this.missing = missing;
+            this.failed = failed;
+            this.millis = millis;
+        }
+    }
+}
@@ -4,10 +4,15 @@ import net.luckperms.api.LuckPerms;
 import net.luckperms.api.LuckPermsProvider;
 import net.luckperms.api.model.group.Group;
 import net.luckperms.api.model.user.User;
+import net.luckperms.api.node.NodeType;
+import net.luckperms.api.node.types.ChatMetaNode;
 import net.luckperms.api.node.types.PrefixNode;
 import net.luckperms.api.node.types.SuffixNode;
 import org.bukkit.entity.Player;
 
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
 public class LuckPermsWrapper {
 
     private final LuckPerms luckPerms;
@@ -24,70 +29,71 @@ public class LuckPermsWrapper {
         return user.getPrimaryGroup();
     }
 
-    public boolean createGroup(String groupName) {
+    public CompletableFuture<Boolean> createGroup(String groupName) {
         if (groupExists(groupName)) {
-            return false;
+            return CompletableFuture.completedFuture(false);
         }
 
-        try {
-            luckPerms.getGroupManager().createAndLoadGroup(groupName).join();
-            return true;
-        } catch (Exception e) {
-            e.printStackTrace();
-            return false;
-        }
+        return luckPerms.getGroupManager().createAndLoadGroup(groupName)
+                .thenApply(group -> true)
+                .exceptionally(e -> {
+                    e.printStackTrace();
+                    return false;
+                });
     }
 
-    public boolean setGroupPrefix(String groupName, String prefix, int priority) {
+    public boolean hasPrefixSuffix(String groupName, String prefix, String suffix, int priority) {
         Group group = luckPerms.getGroupManager().getGroup(groupName);
 
         if (group == null) {
             return false;
         }
 
-        group.data().clear(node -> node instanceof PrefixNode);
-
-        if (prefix != null && !prefix.isEmpty()) {
-            group.data().add(PrefixNode.builder(prefix, priority).build());
-        }
-
-        luckPerms.getGroupManager().saveGroup(group);
-        return true;
+        return matches(group.getNodes(NodeType.PREFIX), prefix, priority)
+                && matches(group.getNodes(NodeType.SUFFIX), suffix, priority);
     }
 
-    public boolean setGroupSuffix(String groupName, String suffix, int priority) {
-        Group group = luckPerms.getGroupManager().getGroup(groupName);
+    private static boolean matches(Collection<? extends ChatMetaNode<?, ?>> nodes,
+                                   String value, int priority) {
+        if (value == null || value.isEmpty()) {
+            return nodes.isEmpty();
+        }
 
-        if (group == null) {
+        if (nodes.size() != 1) {
             return false;
         }
 
-        group.data().clear(node -> node instanceof SuffixNode);
+        ChatMetaNode<?, ?> node = nodes.iterator().next();
+        return node.getPriority() == priority && value.equals(node.getMetaValue());
+    }
 
-        if (suffix != null && !suffix.isEmpty()) {
-            group.data().add(SuffixNode.builder(suffix, priority).build());
-        }
+    public CompletableFuture<Void> applyPrefixSuffix(String groupName, String prefix, String suffix, int priority) {
+        return luckPerms.getGroupManager().modifyGroup(groupName, group -> {
+            group.data().clear(node -> node instanceof PrefixNode || node instanceof SuffixNode);
+
+            if (prefix != null && !prefix.isEmpty()) {
+                group.data().add(PrefixNode.builder(prefix, priority).build());
+            }
 
-        luckPerms.getGroupManager().saveGroup(group);
-        return true;
+            if (suffix != null && !suffix.isEmpty()) {
+                group.data().add(SuffixNode.builder(suffix, priority).build());
+            }
+        });
     }
 
-    public boolean deleteGroup(String groupName) {
-        if (!groupExists(groupName)) {
-            return false;
-        }
+    public CompletableFuture<Boolean> deleteGroup(String groupName) {
+        Group group = luckPerms.getGroupManager().getGroup(groupName);
 
-        if (groupName.equalsIgnoreCase("default")) {
-            return false;
+        if (group == null || groupName.equalsIgnoreCase("default")) {
+            return CompletableFuture.completedFuture(false);
         }
 
-        try {
-            luckPerms.getGroupManager().deleteGroup(luckPerms.getGroupManager().getGroup(groupName)).join();
-            return true;
-        } catch (Exception e) {
-            e.printStackTrace();
-            return false;
-        }
+        return luckPerms.getGroupManager().deleteGroup(group)
+                .thenApply(v -> true)
+                .exceptionally(e -> {
+                    e.printStackTrace();
+                    return false;
+                });
     }
 
     public boolean groupExists(String groupName) {
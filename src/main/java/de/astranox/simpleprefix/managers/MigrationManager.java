@@ -6,9 +6,12 @@ import org.bukkit.configuration.file.YamlConfiguration;
 
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 public class MigrationManager {
 
+    private static final int MAX_IN_FLIGHT = 4;
+
     private final SimplePrefix plugin;
     private final GroupManager groupManager;
     private final ConfigManager configManager;
@@ -41,6 +44,8 @@ public class MigrationManager {
             int migratedCount = 0;
             int skippedCount = 0;
             Map<String, String> details = new LinkedHashMap<>();
+            Map<String, CompletableFuture<Boolean>> updates = new LinkedHashMap<>();
+            Deque<CompletableFuture<Boolean>> inFlight = new ArrayDeque<>();
 
             for (String groupName : groups) {
                 ConfigurationSection groupSection = luckPrefixConfig.getConfigurationSection(groupName);
@@ -80,9 +85,22 @@ public class MigrationManager {
 
                 plugin.getLogger().info("Migrating '" + groupName + "': prefix='" + prefix + "', suffix='" + suffix + "', sortId=" + sortId + " → priority=" + priority + ", nameColor=" + nameColor);
 
-                groupManager.setGroup(groupName, prefix, suffix, priority, nameColor);
+                awaitSlot(inFlight);
+                CompletableFuture<Boolean> update = groupManager.setGroup(groupName, prefix, suffix, priority, nameColor);
+                inFlight.add(update);
+                updates.put(groupName, update);
                 details.put(groupName, "✓ Migrated (Priority: " + priority + ")");
-                migratedCount++;
+            }
+
+            CompletableFuture.allOf(updates.values().toArray(new CompletableFuture<?>[0])).join();
+            int failedCount = 0;
+            for (Map.Entry<String, CompletableFuture<Boolean>> e : updates.entrySet()) {
+                if (e.getValue().join()) {
+                    migratedCount++;
+                } else {
+                    failedCount++;
+                    details.put(e.getKey(), "Saved, but LuckPerms could not be updated");
+                }
             }
 
             if (migratedChatFormat != null) {
@@ -101,6 +119,9 @@ public class MigrationManager {
             if (skippedCount > 0) {
                 message += " (skipped " + skippedCount + " empty groups)";
             }
+            if (failedCount > 0) {
+                message += " (" + failedCount + " not updated in LuckPerms)";
+            }
             if (migratedChatFormat != null || migratedTabFormat != null) {
                 message += " and formats";
             }
@@ -114,6 +135,14 @@ public class MigrationManager {
         }
     }
 
+    private static void awaitSlot(Deque<CompletableFuture<Boolean>> inFlight) {
+        inFlight.removeIf(CompletableFuture::isDone);
+        while (inFlight.size() >= MAX_IN_FLIGHT) {
+            inFlight.poll().join();
+            inFlight.removeIf(CompletableFuture::isDone);
+        }
+    }
+
     private String convertFormat(String format) {
         if (format == null || format.isEmpty()) {
             return "";
@@ -133,6 +162,8 @@ public class MigrationManager {
             Map<String, GroupManager.GroupData> allGroups = groupManager.getAllGroups();
             int removedCount = 0;
             List<String> removedGroups = new ArrayList<>();
+            List<CompletableFuture<Boolean>> updates = new ArrayList<>();
+            Deque<CompletableFuture<Boolean>> inFlight = new ArrayDeque<>();
 
             for (Map.Entry<String, GroupManager.GroupData> entry : allGroups.entrySet()) {
                 String groupName = entry.getKey();
@@ -142,13 +173,18 @@ public class MigrationManager {
                 boolean suffixEmpty = data.suffix == null || data.suffix.trim().isEmpty();
 
                 if (prefixEmpty && suffixEmpty) {
-                    groupManager.deleteGroup(groupName);
+                    awaitSlot(inFlight);
+                    CompletableFuture<Boolean> update = groupManager.deleteGroup(groupName);
+                    inFlight.add(update);
+                    updates.add(update);
                     removedGroups.add(groupName);
                     removedCount++;
                     plugin.getLogger().info("Removed empty group: " + groupName);
                 }
             }
 
+            CompletableFuture.allOf(updates.toArray(new CompletableFuture<?>[0])).join();
+
             if (removedCount == 0) {
                 return new MigrationResult(true, 0, "No empty groups found to cleanup");
             }
@@ -4,15 +4,19 @@ import de.astranox.simpleprefix.SimplePrefix;
 import org.bukkit.entity.Player;
 import org.bukkit.permissions.PermissionAttachmentInfo;
 
-import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 public class PermissionGroupResolver {
 
+    private static final long CACHE_TTL = TimeUnit.SECONDS.toNanos(10);
+
     private final SimplePrefix plugin;
     private final GroupManager groupManager;
+    private final Map<UUID, CachedGroup> cache = new ConcurrentHashMap<>();
 
     public PermissionGroupResolver(SimplePrefix plugin, GroupManager groupManager) {
         this.plugin = plugin;
@@ -20,11 +24,28 @@ public class PermissionGroupResolver {
     }
 
     public String resolveGroup(Player player) {
-        Map<String, GroupManager.GroupData> allGroups = groupManager.getAllGroups();
+        GroupRegistry registry = groupManager.getRegistry();
+        boolean debug = plugin.getConfigManager().isDebugEnabled();
+        long now = System.nanoTime();
+
+        CachedGroup cached = cache.get(player.getUniqueId());
+        if (!debug && cached != null && cached.isValid(registry, now)
+                && (cached.permission == null || player.hasPermission(cached.permission))) {
+            return cached.groupName;
+        }
+
+        GroupRegistry.RankedGroup resolved = resolve(player, registry, debug);
+        String groupName = resolved != null ? resolved.name : "default";
+        String permission = resolved != null ? resolved.permission : null;
+
+        cache.put(player.getUniqueId(), new CachedGroup(groupName, permission, registry, now + CACHE_TTL));
+        return groupName;
+    }
 
-        if (plugin.getConfigManager().isDebugEnabled()) {
+    private GroupRegistry.RankedGroup resolve(Player player, GroupRegistry registry, boolean debug) {
+        if (debug) {
             plugin.getLogger().info("=== Resolving group for " + player.getName() + " ===");
-            plugin.getLogger().info("Available groups in config: " + allGroups.keySet());
+            plugin.getLogger().info("Available groups in config: " + registry.asMap().keySet());
             plugin.getLogger().info("Player's effective permissions:");
             for (PermissionAttachmentInfo perm : player.getEffectivePermissions()) {
                 if (perm.getPermission().startsWith("simpleprefix.group.")) {
@@ -33,51 +54,53 @@ public class PermissionGroupResolver {
             }
         }
 
-        List<GroupEntry> matchedGroups = new ArrayList<>();
+        GroupRegistry.RankedGroup group = firstGranted(registry, player);
 
-        for (Map.Entry<String, GroupManager.GroupData> entry : allGroups.entrySet()) {
-            String groupName = entry.getKey();
-            GroupManager.GroupData data = entry.getValue();
-
-            String permission = "simpleprefix.group." + groupName.toLowerCase();
-
-            if (player.hasPermission(permission)) {
-                matchedGroups.add(new GroupEntry(groupName, data.priority));
-
-                if (plugin.getConfigManager().isDebugEnabled()) {
-                    plugin.getLogger().info("  ✓ Matched group: " + groupName + " (priority: " + data.priority + ")");
-                }
-            }
-        }
-
-        if (matchedGroups.isEmpty()) {
-            if (plugin.getConfigManager().isDebugEnabled()) {
+        if (debug) {
+            if (group != null) {
+                plugin.getLogger().info("  → Resolved to: " + group.name + " (priority: " + group.data.priority + ")");
+            } else {
                 plugin.getLogger().info("  ! No groups matched, using default");
             }
-            return "default";
         }
+        return group;
+    }
 
-        matchedGroups.sort(Comparator.comparingInt(e -> e.priority));
-
-        String resolvedGroup = matchedGroups.get(0).groupName;
+    static GroupRegistry.RankedGroup firstGranted(GroupRegistry registry, Player player) {
+        List<GroupRegistry.RankedGroup> ranked = registry.byPriority();
 
-        if (plugin.getConfigManager().isDebugEnabled()) {
-            plugin.getLogger().info("  → Resolved to: " + resolvedGroup + " (priority: " + matchedGroups.get(0).priority + ")");
-            if (matchedGroups.size() > 1) {
-                plugin.getLogger().info("  (Player has " + matchedGroups.size() + " groups, showing highest priority)");
+        for (int i = 0; i < ranked.size(); i++) {
+            GroupRegistry.RankedGroup group = ranked.get(i);
+            if (player.hasPermission(group.permission)) {
+                return group;
             }
         }
+        return null;
+    }
 
-        return resolvedGroup;
+    public void invalidate(Player player) {
+        cache.remove(player.getUniqueId());
     }
 
-    private static class GroupEntry {
+    public void invalidateAll() {
+        cache.clear();
+    }
+
+    private static class CachedGroup {
         final String groupName;
-        final int priority;
+        final String permission;
+        final GroupRegistry registry;
+        final long expiresAt;
 
-        GroupEntry(String groupName, int priority) {
+        CachedGroup(String groupName, String permission, GroupRegistry registry, long expiresAt) {
             this.groupName = groupName;
-            this.priority = priority;
+            this.permission = permission;
+            this.registry = registry;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isValid(GroupRegistry current, long now) {
+            return registry == current && now - expiresAt < 0;
         }
     }
 }
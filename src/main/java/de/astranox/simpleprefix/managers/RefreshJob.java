@@ -0,0 +1,201 @@
+package de.astranox.simpleprefix.managers;
+
+import de.astranox.simpleprefix.SimplePrefix;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+public class RefreshJob {
+
+    private final SimplePrefix plugin;
+    private final TeamManager teamManager;
+    private final ConfigManager config;
+    private final ForkJoinPool renderPool;
+
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>();
+    private final Map<UUID, Entry> queued = new HashMap<>();
+    private final List<Runnable> waiting = new ArrayList<>();
+
+    private BukkitTask task;
+    private long sequence;
+    private int total;
+    private int done;
+    private int ticks;
+    private long startedAt;
+
+    public RefreshJob(SimplePrefix plugin, TeamManager teamManager, ConfigManager config) {
+        this.plugin = plugin;
+        this.teamManager = teamManager;
+        this.config = config;
+        this.renderPool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    public void shutdown() {
+        renderPool.shutdownNow();
+    }
+
+    public int requestAll(Runnable onComplete) {
+        return request(Bukkit.getOnlinePlayers(), onComplete);
+    }
+
+    public int request(Collection<? extends Player> players, Runnable onComplete) {
+        int added = 0;
+        int requested = 0;
+
+        for (Player player : players) {
+            UUID uuid = player.getUniqueId();
+            Entry existing = queued.get(uuid);
+            requested++;
+
+            if (existing != null) {
+                existing.render.cancel(false);
+                existing.render = render(player);
+                existing.revision = teamManager.getRevision(uuid);
+                continue;
+            }
+
+            Entry entry = new Entry(uuid, teamManager.getAppliedPriority(uuid), sequence++,
+                    teamManager.getRevision(uuid), render(player));
+            queued.put(uuid, entry);
+            queue.add(entry);
+            added++;
+        }
+
+        if (onComplete != null) {
+            waiting.add(onComplete);
+        }
+
+        if (task == null) {
+            total = 0;
+            done = 0;
+            ticks = 0;
+            startedAt = System.nanoTime();
+        }
+        total += added;
+
+        if (task == null && !queue.isEmpty()) {
+            task = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 0L, 1L);
+        } else if (task == null) {
+            finish();
+        }
+
+        return requested;
+    }
+
+    private CompletableFuture<TeamManager.RenderedTeam> render(Player player) {
+        return CompletableFuture
+                .supplyAsync(() -> teamManager.render(player), renderPool)
+                .exceptionally(e -> null);
+    }
+
+    public boolean isRunning() {
+        return task != null;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getDone() {
+        return done;
+    }
+
+    public long getElapsedMillis() {
+        return (System.nanoTime() - startedAt) / 1_000_000L;
+    }
+
+    public int getTicks() {
+        return ticks;
+    }
+
+    public int getRemaining() {
+        return queue.size();
+    }
+
+    private void tick() {
+        long budget = config.getRefreshBudgetNanos();
+        long deadline = System.nanoTime() + budget;
+        ticks++;
+
+        while (!queue.isEmpty() && System.nanoTime() < deadline) {
+            if (!queue.peek().render.isDone()) {
+                break;
+            }
+
+            Entry entry = queue.poll();
+            queued.remove(entry.uuid);
+
+            Player player = Bukkit.getPlayer(entry.uuid);
+            if (player != null && player.isOnline()) {
+                apply(player, entry);
+            }
+
+            done++;
+        }
+
+        if (queue.isEmpty()) {
+            task.cancel();
+            task = null;
+            finish();
+        }
+    }
+
+    private void apply(Player player, Entry entry) {
+        if (teamManager.getRevision(entry.uuid) != entry.revision) {
+            return;
+        }
+
+        TeamManager.RenderedTeam rendered = entry.render.join();
+        if (rendered == null) {
+            teamManager.updatePlayer(player);
+            return;
+        }
+
+        teamManager.apply(player, rendered);
+    }
+
+    private void finish() {
+        if (config.isDebugEnabled()) {
+            plugin.getLogger().info("Refreshed " + done + " players in " + getElapsedMillis() + "ms over " + ticks + " ticks");
+        }
+
+        List<Runnable> callbacks = new ArrayList<>(waiting);
+        waiting.clear();
+        for (Runnable callback : callbacks) {
+            callback.run();
+        }
+    }
+
+    private static final class Entry implements Comparable<Entry> {
+        final UUID uuid;
+        final int priority;
+        final long sequence;
+        long revision;
+        CompletableFuture<TeamManager.RenderedTeam> render;
+
+        Entry(UUID uuid, int priority, long sequence, long revision,
+              CompletableFuture<TeamManager.RenderedTeam> render) {
+            this.uuid = uuid;
+            this.priority = priority;
+            this.sequence = sequence;
+            this.revision = revision;
+            this.render = render;
+        }
+
+        @Override
+        public int compareTo(Entry o) {
+            int c = Integer.compare(priority, o.priority);
+            return c != 0 ? c : Long.compare(sequence, o.sequence);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package de.astranox.simpleprefix.managers;
+
+import de.astranox.simpleprefix.update.UpdateChannel;
+import de.astranox.simpleprefix.util.FormatTemplate;
+import org.bukkit.configuration.Configuration;
+import org.bukkit.configuration.MemoryConfiguration;
+
+import java.util.Locale;
+
+public final class Settings {
+
+    private static final String DEFAULT_CHAT_FORMAT = "{prefix}{player}{suffix}: {message}";
+    private static final String DEFAULT_TAB_FORMAT = "{prefix}{player}{suffix}";
+
+    public final boolean autoReloadEnabled;
+    public final int reloadInterval;
+    public final boolean autoUpdateEnabled;
+    public final boolean updateCheckEnabled;
+    public final int updateCheckInterval;
+    public final UpdateChannel updateChannel;
+    public final long joinDelay;
+    public final String teamPrefix;
+    public final boolean sharedTeams;
+    public final boolean nativeComponents;
+    public final boolean jmxEnabled;
+    public final boolean prometheusEnabled;
+    public final int prometheusInterval;
+    public final long refreshBudgetNanos;
+    public final String storageType;
+    public final String sqliteFile;
+    public final boolean journalEnabled;
+    public final long journalCompactBytes;
+    public final boolean debug;
+
+    public final boolean chatEnabled;
+    public final String chatFormat;
+    public final FormatTemplate chatTemplate;
+    public final boolean tabEnabled;
+    public final String tabFormat;
+    public final FormatTemplate tabBeforePlayer;
+    public final FormatTemplate tabAfterPlayer;
+
+    private Settings(Configuration config, Settings previous) {
+        autoReloadEnabled = config.getBoolean("settings.auto-reload.enabled", true);
+        reloadInterval = Math.max(1, config.getInt("settings.auto-reload.interval", 30));
+        autoUpdateEnabled = config.getBoolean("settings.auto-update.enabled", true);
+        updateCheckEnabled = config.getBoolean("settings.update-check.enabled", true);
+        updateCheckInterval = Math.max(60, config.getInt("settings.update-check.interval", 86400));
+        updateChannel = UpdateChannel.fromString(config.getString("settings.update-check.channel", "stable"));
+        joinDelay = Math.max(0L, config.getLong("settings.join-delay", 20L));
+        teamPrefix = config.getString("settings.team-prefix", "lp_");
+        sharedTeams = config.getBoolean("settings.shared-teams", true);
+        nativeComponents = config.getBoolean("settings.native-components", true);
+        jmxEnabled = config.getBoolean("settings.metrics.jmx", true);
+        prometheusEnabled = config.getBoolean("settings.metrics.prometheus.enabled", false);
+        prometheusInterval = Math.max(1, config.getInt("settings.metrics.prometheus.interval", 15));
+        refreshBudgetNanos = Math.max(1L, config.getLong("settings.refresh.tick-budget-ms", 5L)) * 1_000_000L;
+        storageType = config.getString("settings.storage.type", "yaml").toLowerCase(Locale.ROOT);
+        sqliteFile = config.getString("settings.storage.sqlite.file", "groups.db");
+        journalEnabled = config.getBoolean("settings.storage.journal.enabled", false);
+        journalCompactBytes = Math.max(1L, config.getLong("settings.storage.journal.compact-after-kb", 256L)) * 1024L;
+        debug = config.getBoolean("settings.debug", false);
+
+        chatEnabled = config.getBoolean("formats.chat.enabled", true);
+        chatFormat = config.getString("formats.chat.format", DEFAULT_CHAT_FORMAT);
+        tabEnabled = config.getBoolean("formats.tab.enabled", true);
+        tabFormat = config.getString("formats.tab.format", DEFAULT_TAB_FORMAT);
+
+        if (previous != null && previous.chatFormat.equals(chatFormat)) {
+            chatTemplate = previous.chatTemplate;
+        } else {
+            chatTemplate = FormatTemplate.compile(chatFormat);
+        }
+
+        if (previous != null && previous.tabFormat.equals(tabFormat)) {
+            tabBeforePlayer = previous.tabBeforePlayer;
+            tabAfterPlayer = previous.tabAfterPlayer;
+        } else {
+            FormatTemplate[] tab = FormatTemplate.splitAroundPlayer(tabFormat);
+            tabBeforePlayer = tab[0];
+            tabAfterPlayer = tab[1];
+        }
+    }
+
+    public boolean rendersLike(Settings other) {
+        return other != null
+                && chatTemplate == other.chatTemplate
+                && tabBeforePlayer == other.tabBeforePlayer
+                && tabAfterPlayer == other.tabAfterPlayer
+                && chatEnabled == other.chatEnabled
+                && tabEnabled == other.tabEnabled
+                && sharedTeams == other.sharedTeams
+                && nativeComponents == other.nativeComponents;
+    }
+
+    public static Settings defaults() {
+        return new Settings(new MemoryConfiguration(), null);
+    }
+
+    public static Settings from(Configuration config, Settings previous) {
+        return new Settings(config, previous);
+    }
+}
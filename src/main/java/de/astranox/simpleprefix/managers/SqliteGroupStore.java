@@ -0,0 +1,296 @@
+package de.astranox.simpleprefix.managers;
+
+import de.astranox.simpleprefix.SimplePrefix;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+public class SqliteGroupStore implements GroupStore {
+
+    private static final int BUSY_TIMEOUT_MS = 5000;
+
+    private static final String SELECT_ALL =
+            "SELECT name, prefix, suffix, priority, name_color FROM sp_groups WHERE deleted = 0";
+    private static final String SELECT_SINCE =
+            "SELECT name, prefix, suffix, priority, name_color, deleted FROM sp_groups WHERE revision > ?";
+    private static final String UPSERT =
+            "INSERT OR REPLACE INTO sp_groups (name, prefix, suffix, priority, name_color, revision, deleted) VALUES (?, ?, ?, ?, ?, ?, 0)";
+    private static final String INSERT_IF_ABSENT =
+            "INSERT OR IGNORE INTO sp_groups (name, prefix, suffix, priority, name_color, revision, deleted) VALUES (?, ?, ?, ?, ?, ?, 0)";
+    private static final String DELETE =
+            "UPDATE sp_groups SET deleted = 1, revision = ? WHERE name = ?";
+
+    private final SimplePrefix plugin;
+    private final File databaseFile;
+    private final Object lock = new Object();
+    private Connection connection;
+    private long lastRevision;
+    private long dataVersion;
+
+    public SqliteGroupStore(SimplePrefix plugin, File databaseFile) {
+        this.plugin = plugin;
+        this.databaseFile = databaseFile;
+    }
+
+    public void open() throws IOException {
+        synchronized (lock) {
+            try {
+                Class.forName("org.sqlite.JDBC");
+
+                Properties properties = new Properties();
+                properties.setProperty("journal_mode", "WAL");
+                properties.setProperty("synchronous", "NORMAL");
+                properties.setProperty("busy_timeout", String.valueOf(BUSY_TIMEOUT_MS));
+                properties.setProperty("transaction_mode", "IMMEDIATE");
+                connection = DriverManager.getConnection("jdbc:sqlite:" + databaseFile.getAbsolutePath(), properties);
+
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("PRAGMA busy_timeout = " + BUSY_TIMEOUT_MS);
+                    statement.execute("PRAGMA journal_mode = WAL");
+                    statement.execute("CREATE TABLE IF NOT EXISTS sp_groups ("
+                            + "name TEXT NOT NULL PRIMARY KEY COLLATE NOCASE, "
+                            + "prefix TEXT NOT NULL, "
+                            + "suffix TEXT NOT NULL, "
+                            + "priority INTEGER NOT NULL, "
+                            + "name_color TEXT, "
+                            + "revision INTEGER NOT NULL, "
+                            + "deleted INTEGER NOT NULL DEFAULT 0)");
+                    statement.execute("CREATE INDEX IF NOT EXISTS sp_groups_revision ON sp_groups (revision)");
+                    statement.execute("CREATE TABLE IF NOT EXISTS sp_meta (key TEXT NOT NULL PRIMARY KEY, value INTEGER NOT NULL)");
+                    statement.execute("INSERT OR IGNORE INTO sp_meta (key, value) VALUES ('revision', 0)");
+                }
+            } catch (ClassNotFoundException | SQLException e) {
+                closeQuietly();
+                throw new IOException("Cannot open " + databaseFile.getName(), e);
+            }
+        }
+    }
+
+    public int importFrom(GroupStore source) throws IOException {
+        synchronized (lock) {
+            try {
+                if (readMeta("imported") != null) {
+                    return -1;
+                }
+
+                GroupRegistry registry = source.load();
+                connection.setAutoCommit(false);
+                try {
+                    if (readMeta("imported") != null) {
+                        connection.rollback();
+                        return -1;
+                    }
+
+                    long revision = nextRevision();
+                    int imported = 0;
+                    try (PreparedStatement insert = connection.prepareStatement(INSERT_IF_ABSENT)) {
+                        for (Map.Entry<String, GroupManager.GroupData> e : registry.asMap().entrySet()) {
+                            bind(insert, e.getKey(), e.getValue(), revision);
+                            insert.addBatch();
+                            imported++;
+                        }
+                        insert.executeBatch();
+                    }
+
+                    try (Statement statement = connection.createStatement()) {
+                        statement.execute("INSERT INTO sp_meta (key, value) VALUES ('imported', 1)");
+                    }
+                    connection.commit();
+
+                    plugin.getLogger().info("Imported " + imported + " group(s) from " + source.getName()
+                            + " into " + databaseFile.getName() + "!");
+                    return imported;
+                } catch (SQLException e) {
+                    connection.rollback();
+                    throw e;
+                } finally {
+                    connection.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                throw new IOException("Cannot import " + source.getName() + " into " + databaseFile.getName(), e);
+            }
+        }
+    }
+
+    @Override
+    public String getName() {
+        return databaseFile.getName();
+    }
+
+    @Override
+    public GroupRegistry load() throws IOException {
+        synchronized (lock) {
+            try {
+                Map<String, GroupManager.GroupData> groups = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+                long revision = readRevision();
+
+                try (Statement statement = connection.createStatement();
+                     ResultSet rows = statement.executeQuery(SELECT_ALL)) {
+                    while (rows.next()) {
+                        groups.put(rows.getString(1), read(rows));
+                    }
+                }
+
+                lastRevision = revision;
+                dataVersion = readDataVersion();
+                return GroupRegistry.empty().withChanges(groups);
+            } catch (SQLException e) {
+                throw new IOException("Cannot read " + databaseFile.getName(), e);
+            }
+        }
+    }
+
+    @Override
+    public GroupRegistry refresh(GroupRegistry current) throws IOException {
+        synchronized (lock) {
+            try {
+                Map<String, GroupManager.GroupData> changes = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+                long revision = readRevision();
+
+                try (PreparedStatement select = connection.prepareStatement(SELECT_SINCE)) {
+                    select.setLong(1, lastRevision);
+                    try (ResultSet rows = select.executeQuery()) {
+                        while (rows.next()) {
+                            changes.put(rows.getString(1), rows.getInt(6) != 0 ? null : read(rows));
+                        }
+                    }
+                }
+
+                lastRevision = revision;
+                dataVersion = readDataVersion();
+                return current.withChanges(changes);
+            } catch (SQLException e) {
+                throw new IOException("Cannot read " + databaseFile.getName(), e);
+            }
+        }
+    }
+
+    @Override
+    public void save(Collection<String> groupNames, GroupRegistry registry) throws IOException {
+        synchronized (lock) {
+            try {
+                connection.setAutoCommit(false);
+                try (PreparedStatement upsert = connection.prepareStatement(UPSERT);
+                     PreparedStatement delete = connection.prepareStatement(DELETE)) {
+                    long revision = nextRevision();
+
+                    for (String groupName : groupNames) {
+                        GroupManager.GroupData data = registry.get(groupName);
+                        if (data == null) {
+                            delete.setLong(1, revision);
+                            delete.setString(2, groupName);
+                            delete.addBatch();
+                        } else {
+                            bind(upsert, registry.canonicalName(groupName), data, revision);
+                            upsert.addBatch();
+                        }
+                    }
+
+                    upsert.executeBatch();
+                    delete.executeBatch();
+                    connection.commit();
+
+                    if (revision == lastRevision + 1) {
+                        lastRevision = revision;
+                    }
+                } catch (SQLException e) {
+                    connection.rollback();
+                    throw e;
+                } finally {
+                    connection.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                throw new IOException("Cannot write " + databaseFile.getName(), e);
+            }
+        }
+    }
+
+    @Override
+    public boolean hasExternalChanges() {
+        synchronized (lock) {
+            if (connection == null) {
+                return false;
+            }
+
+            try {
+                return readDataVersion() != dataVersion;
+            } catch (SQLException e) {
+                plugin.getLogger().warning("Failed to poll " + databaseFile.getName() + ": " + e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    @Override
+    public void close(GroupRegistry registry) {
+        synchronized (lock) {
+            closeQuietly();
+        }
+    }
+
+    private void closeQuietly() {
+        if (connection == null) {
+            return;
+        }
+
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to close " + databaseFile.getName() + ": " + e.getMessage());
+        }
+        connection = null;
+    }
+
+    private long nextRevision() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("UPDATE sp_meta SET value = value + 1 WHERE key = 'revision'");
+        }
+        return readRevision();
+    }
+
+    private long readRevision() throws SQLException {
+        Long revision = readMeta("revision");
+        return revision != null ? revision : 0L;
+    }
+
+    private Long readMeta(String key) throws SQLException {
+        try (PreparedStatement select = connection.prepareStatement("SELECT value FROM sp_meta WHERE key = ?")) {
+            select.setString(1, key);
+            try (ResultSet rows = select.executeQuery()) {
+                return rows.next() ? rows.getLong(1) : null;
+            }
+        }
+    }
+
+    private long readDataVersion() throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("PRAGMA data_version")) {
+            return rows.next() ? rows.getLong(1) : 0L;
+        }
+    }
+
+    private static GroupManager.GroupData read(ResultSet rows) throws SQLException {
+        String nameColor = rows.getString(5);
+        return new GroupManager.GroupData(rows.getString(2), rows.getString(3), rows.getInt(4),
+                nameColor == null || nameColor.isEmpty() ? null : nameColor);
+    }
+
+    private static void bind(PreparedStatement statement, String name, GroupManager.GroupData data, long revision) throws SQLException {
+        statement.setString(1, name);
+        statement.setString(2, data.prefix != null ? data.prefix : "");
+        statement.setString(3, data.suffix != null ? data.suffix : "");
+        statement.setInt(4, data.priority);
+        statement.setString(5, data.nameColor);
+        statement.setLong(6, revision);
+    }
+}
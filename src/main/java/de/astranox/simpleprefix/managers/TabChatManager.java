@@ -2,81 +2,104 @@ package de.astranox.simpleprefix.managers;
 
 import de.astranox.simpleprefix.SimplePrefix;
 import de.astranox.simpleprefix.util.ComponentParser;
+import de.astranox.simpleprefix.util.FormatTemplate;
+import de.astranox.simpleprefix.util.PaperComponents;
+import net.kyori.adventure.text.Component;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.AsyncPlayerChatEvent;
 
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
 public class TabChatManager implements Listener {
 
+    private static final ThreadLocal<StringBuilder> RENDER_BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(128));
+
     private final SimplePrefix plugin;
     private final ConfigManager config;
     private final GroupManager groups;
-    private final PermissionGroupResolver resolver;
-    private final LuckPermsWrapper lp;
     private final ComponentParser parser;
+    private final Map<UUID, ChatFormat> formats = new ConcurrentHashMap<>();
+    private volatile boolean nativeChatRegistered;
 
-    public TabChatManager(SimplePrefix plugin,
-                          LuckPermsWrapper lp,
-                          ConfigManager config,
-                          GroupManager groups,
-                          PermissionGroupResolver resolver) {
+    public TabChatManager(SimplePrefix plugin, ConfigManager config, GroupManager groups) {
         this.plugin = plugin;
-        this.lp = lp;
         this.config = config;
         this.groups = groups;
-        this.resolver = resolver;
         this.parser = new ComponentParser(plugin);
     }
 
+    public void registerNativeChat() {
+        nativeChatRegistered = PaperComponents.registerChatRenderer(plugin, this, EventPriority.HIGHEST, this::nativeFormatOf);
+        if (nativeChatRegistered && config.isDebugEnabled()) {
+            plugin.getLogger().info("Using Paper chat renderer for chat format");
+        }
+    }
+
     @EventHandler(priority = EventPriority.HIGHEST)
     public void onChat(AsyncPlayerChatEvent e) {
-        if (!config.isChatFormatEnabled()) return;
-        Player p = e.getPlayer();
-        GroupManager.GroupData g = groupOf(p);
-
-        String format = config.getChatFormat(); // z.B. "{prefix} {player} » {message}"
-        String nameColor = (g.nameColor != null && !g.nameColor.isEmpty()) ? "<" + g.nameColor + ">" : "";
+        if (!config.isChatFormatEnabled() || useNativeChat()) return;
+        long start = System.nanoTime();
+        ChatFormat format = formats.get(e.getPlayer().getUniqueId());
+        if (format == null) return;
+        e.setFormat(format.format);
+        plugin.getMetrics().recordChatFormat(System.nanoTime() - start);
+    }
 
-        String rendered = format
-                .replace("{prefix}", g.prefix != null ? g.prefix : "")
-                .replace("{suffix}", g.suffix != null ? g.suffix : "")
-                .replace("{player}", nameColor + p.getName())
-                .replace("{displayname}", nameColor + p.getDisplayName())
-                .replace("{message}", "%2$s");
+    private Component nativeFormatOf(Player p) {
+        if (!config.isChatFormatEnabled() || !useNativeChat()) return null;
+        long start = System.nanoTime();
+        ChatFormat format = formats.get(p.getUniqueId());
+        if (format == null) return null;
+        plugin.getMetrics().recordChatFormat(System.nanoTime() - start);
+        return format.component;
+    }
 
-        e.setFormat(parser.parse(rendered));
+    private boolean useNativeChat() {
+        return nativeChatRegistered && config.isNativeComponentsEnabled();
     }
 
-    public void updateTabEntry(Player p) {
-        if (!config.isTabFormatEnabled()) return;
-        GroupManager.GroupData g = groupOf(p);
-        String[] split = splitAroundPlayer(config.getTabFormat());
-        String nameColor = (g.nameColor != null && !g.nameColor.isEmpty()) ? "<" + g.nameColor + ">" : "";
+    public ChatFormat prepareFormat(Player p, String groupName) {
+        FormatTemplate template = config.getChatTemplate();
+        GroupRegistry registry = groups.getRegistry();
 
-        String before = split[0]
-                .replace("{prefix}", g.prefix != null ? g.prefix : "")
-                .replace("{suffix}", g.suffix != null ? g.suffix : "");
+        GroupManager.GroupData g = registry.get(groupName);
+        if (g == null) g = registry.get("default");
 
-        String after = split[1]
-                .replace("{prefix}", "")
-                .replace("{suffix}", g.suffix != null ? g.suffix : "");
+        String rendered = renderChat(template, g, p);
+        Component component = useNativeChat() ? parser.parseComponentUncached(rendered) : null;
+        return new ChatFormat(parser.parseUncached(rendered), component);
+    }
+
+    public void storeFormat(UUID uuid, ChatFormat format) {
+        formats.put(uuid, format);
+    }
 
-        String listName = parser.parse(before + nameColor + p.getName() + after);
-        p.setPlayerListName(listName);
+    public void forget(UUID uuid) {
+        formats.remove(uuid);
     }
 
-    private GroupManager.GroupData groupOf(Player p) {
-        String g = (lp != null) ? lp.getPrimaryGroup(p) : resolver.resolveGroup(p);
-        GroupManager.GroupData data = groups.getGroup(g);
-        return data != null ? data : groups.getGroup("default");
+    private String renderChat(FormatTemplate template, GroupManager.GroupData g, Player p) {
+        String nameColor = g.nameColor != null && !g.nameColor.isEmpty() ? "<" + g.nameColor + ">" : "";
+
+        StringBuilder out = RENDER_BUFFER.get();
+        out.setLength(0);
+        template.appendTo(out, g.prefix, g.suffix, nameColor + p.getName(), nameColor + p.getDisplayName(), "%2$s");
+        return out.toString();
     }
 
-    private String[] splitAroundPlayer(String format) {
-        String f = (format == null || format.isEmpty()) ? "{prefix} {player}" : format;
-        int idx = f.indexOf("{player}");
-        if (idx < 0) return new String[]{f, ""};
-        return new String[]{f.substring(0, idx), f.substring(idx + "{player}".length())};
+    public static final class ChatFormat {
+        final String format;
+        final Component component;
+
+        ChatFormat(String format, Component component) {
+            this.format = format;
+            this.component = component;
+        }
     }
+
 }
@@ -2,16 +2,25 @@ package de.astranox.simpleprefix.managers;
 
 import de.astranox.simpleprefix.SimplePrefix;
 import de.astranox.simpleprefix.util.ComponentParser;
+import de.astranox.simpleprefix.util.FormatTemplate;
+import de.astranox.simpleprefix.util.LegacyTranscoder;
+import de.astranox.simpleprefix.util.PaperComponents;
+import de.astranox.simpleprefix.util.VersionUtil;
+import net.kyori.adventure.text.Component;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.scoreboard.Scoreboard;
 import org.bukkit.scoreboard.Team;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
 public class TeamManager {
 
-    private static final int PREFIX_LIMIT = 256;
-    private static final int SUFFIX_LIMIT = 256;
     private static final String TEAM_NS = "sp";
+    private static final ThreadLocal<StringBuilder> RENDER_BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(128));
 
     private final SimplePrefix plugin;
     private final Scoreboard scoreboard;
@@ -19,121 +28,310 @@ public class TeamManager {
     private final GroupManager groups;
     private final PermissionGroupResolver resolver;
     private final LuckPermsWrapper lp;
+    private final TabChatManager chat;
     private final ComponentParser parser;
+    private final Map<UUID, AppliedTeam> applied = new HashMap<>();
+    private final Map<UUID, String> listNames = new HashMap<>();
+    private final Map<String, String> sharedTeamKeys = new HashMap<>();
+    private final GroupMemberIndex memberIndex = new GroupMemberIndex();
+    private long revision;
 
     public TeamManager(SimplePrefix plugin,
                        LuckPermsWrapper lp,
                        ConfigManager config,
                        GroupManager groups,
-                       PermissionGroupResolver resolver) {
+                       PermissionGroupResolver resolver,
+                       TabChatManager chat) {
         this.plugin = plugin;
         this.lp = lp;
         this.config = config;
         this.groups = groups;
         this.resolver = resolver;
+        this.chat = chat;
         this.parser = new ComponentParser(plugin);
         this.scoreboard = Bukkit.getScoreboardManager().getMainScoreboard();
     }
 
     public void updatePlayer(Player p) {
         if (p == null || !p.isOnline()) return;
-        GroupManager.GroupData g = groupOf(p);
-        String teamId = teamIdFor(p, g.priority);
-        removeCurrentTeam(p);
+        apply(p, render(p));
+    }
+
+    public RenderedTeam render(Player p) {
+        long start = System.nanoTime();
+        String groupName = groupNameOf(p);
+        GroupManager.GroupData g = groupOf(groupName);
+
+        String before = renderBefore(g, p);
+        String after = renderAfter(g, p);
+
+        Component prefixComponent = null;
+        Component suffixComponent = null;
+        String prefix;
+        String suffix;
+
+        if (useNativeComponents()) {
+            prefixComponent = parser.parseComponent(before);
+            suffixComponent = parser.parseComponent(after);
+            prefix = LegacyTranscoder.truncate(ComponentParser.serialize(prefixComponent), VersionUtil.getPrefixLimit());
+            suffix = LegacyTranscoder.truncate(ComponentParser.serialize(suffixComponent), VersionUtil.getSuffixLimit());
+        } else {
+            prefix = parser.parse(before, VersionUtil.getPrefixLimit());
+            suffix = parser.parse(after, VersionUtil.getSuffixLimit());
+        }
+
+        if (prefix.trim().isEmpty()) {
+            prefix = " ";
+            if (prefixComponent != null) prefixComponent = Component.text(" ");
+        }
+
+        String listName = null;
+        Component listNameComponent = null;
+        if (config.isTabFormatEnabled()) {
+            String source = before + p.getName() + after;
+            if (useNativeComponents()) {
+                listNameComponent = parser.parseComponentUncached(source);
+                listName = ComponentParser.serialize(listNameComponent);
+            } else {
+                listName = parser.parseUncached(source);
+            }
+        }
+
+        TabChatManager.ChatFormat chatFormat = config.isChatFormatEnabled()
+                ? chat.prepareFormat(p, groupName)
+                : null;
+
+        RenderedTeam rendered = new RenderedTeam(groupName, g.priority, prefix, suffix, prefixComponent, suffixComponent,
+                listName, listNameComponent, chatFormat);
+        plugin.getMetrics().recordRender(System.nanoTime() - start);
+        return rendered;
+    }
+
+    public void apply(Player p, RenderedTeam r) {
+        if (p == null || !p.isOnline()) return;
+        memberIndex.track(p.getUniqueId(), r.groupName);
+        if (r.chatFormat != null) {
+            chat.storeFormat(p.getUniqueId(), r.chatFormat);
+        } else {
+            chat.forget(p.getUniqueId());
+        }
+        applyListName(p, r);
+
+        String teamId = useSharedTeams()
+                ? sharedTeamIdFor(r.groupName, r.priority, r.prefix, r.suffix)
+                : null;
+        if (teamId == null) teamId = teamIdFor(p, r.priority);
+
+        String entry = p.getName();
+        AppliedTeam last = applied.get(p.getUniqueId());
         Team t = scoreboard.getTeam(teamId);
-        if (t == null) t = scoreboard.registerNewTeam(teamId);
 
-        String[] split = splitAroundPlayer(config.getTabFormat());
-        String before = replaceTokens(split[0], g, p, true);
-        String after = replaceTokens(split[1], g, p, false);
+        if (last != null && t != null && last.matches(teamId, r.prefix, r.suffix) && t.hasEntry(entry)) {
+            plugin.getMetrics().recordTeamNoop();
+            ensureScoreboard(p);
+            return;
+        }
 
-        String prefix = limit(parser.parse(before), PREFIX_LIMIT);
-        String suffix = limit(parser.parse(after), SUFFIX_LIMIT);
+        int mutations = 0;
+        if (t == null) {
+            t = scoreboard.registerNewTeam(teamId);
+            mutations++;
+        }
+        if (r.prefixComponent != null && PaperComponents.setTeamPrefix(t, r.prefixComponent)) {
+            mutations++;
+        } else if ((r.prefixComponent == null || !PaperComponents.isAvailable()) && !r.prefix.equals(t.getPrefix())) {
+            t.setPrefix(r.prefix);
+            mutations++;
+        }
+        if (r.suffixComponent != null && PaperComponents.setTeamSuffix(t, r.suffixComponent)) {
+            mutations++;
+        } else if ((r.suffixComponent == null || !PaperComponents.isAvailable()) && !r.suffix.equals(t.getSuffix())) {
+            t.setSuffix(r.suffix);
+            mutations++;
+        }
 
-        if (prefix.trim().isEmpty()) prefix = " ";
-        t.setPrefix(prefix);
-        t.setSuffix(suffix);
+        if (!t.hasEntry(entry)) {
+            Team previous = scoreboard.getEntryTeam(entry);
+            t.addEntry(entry);
+            mutations++;
+            if (unregisterIfEmpty(previous)) mutations++;
+        }
 
-        if (!t.hasEntry(p.getName())) t.addEntry(p.getName());
-        if (p.getScoreboard() != scoreboard) p.setScoreboard(scoreboard);
+        plugin.getMetrics().recordTeamUpdate(mutations);
+        applied.put(p.getUniqueId(), new AppliedTeam(teamId, r.prefix, r.suffix, r.priority, ++revision));
+        ensureScoreboard(p);
+    }
+
+    private void applyListName(Player p, RenderedTeam r) {
+        UUID uuid = p.getUniqueId();
+        if (Objects.equals(listNames.get(uuid), r.listName)) return;
+
+        if (r.listName == null) {
+            p.setPlayerListName(null);
+            listNames.remove(uuid);
+        } else {
+            if (r.listNameComponent == null || !PaperComponents.setPlayerListName(p, r.listNameComponent)) {
+                p.setPlayerListName(r.listName);
+            }
+            listNames.put(uuid, r.listName);
+        }
+        plugin.getMetrics().recordScoreboardMutations(1);
     }
 
     public void updateAll() {
-        for (Player p : Bukkit.getOnlinePlayers()) updatePlayer(p);
+        plugin.updateAllPlayers();
+    }
+
+    public GroupMemberIndex getMemberIndex() {
+        return memberIndex;
+    }
+
+    public long getRevision(UUID uuid) {
+        AppliedTeam last = applied.get(uuid);
+        return last != null ? last.revision : 0L;
+    }
+
+    public int getAppliedPriority(UUID uuid) {
+        AppliedTeam last = applied.get(uuid);
+        return last != null ? last.priority : -1;
     }
 
     public void removePlayer(Player p) {
+        applied.remove(p.getUniqueId());
+        listNames.remove(p.getUniqueId());
+        memberIndex.remove(p.getUniqueId());
+        chat.forget(p.getUniqueId());
         Team t = scoreboard.getPlayerTeam(p);
         if (t == null) return;
         t.removeEntry(p.getName());
-        if (t.getSize() == 0) t.unregister();
+        int mutations = 1;
+        if (t.getSize() == 0) {
+            sharedTeamKeys.remove(t.getName());
+            t.unregister();
+            mutations++;
+        }
+        plugin.getMetrics().recordScoreboardMutations(mutations);
     }
 
-    private void removeCurrentTeam(Player p) {
-        if (p == null || !p.isOnline()) return;
-
-        Team current = scoreboard.getPlayerTeam(p);
-        if (current == null) return;
+    private void ensureScoreboard(Player p) {
+        if (p.getScoreboard() != scoreboard) p.setScoreboard(scoreboard);
+    }
 
-        if (current.hasEntry(p.getName())) {
-            current.removeEntry(p.getName());
-        }
+    private boolean unregisterIfEmpty(Team team) {
+        if (team == null) return false;
 
-        boolean isOurTeam = current.getName().startsWith("sp_");
-        if (isOurTeam && current.getEntries().isEmpty()) {
-            current.unregister();
+        boolean isOurTeam = team.getName().startsWith(TEAM_NS + "_");
+        if (isOurTeam && team.getEntries().isEmpty()) {
+            sharedTeamKeys.remove(team.getName());
+            team.unregister();
+            return true;
         }
+        return false;
     }
 
+    private String groupNameOf(Player p) {
+        return (lp != null) ? lp.getPrimaryGroup(p) : resolver.resolveGroup(p);
+    }
 
-    private GroupManager.GroupData groupOf(Player p) {
-        String g = (lp != null) ? lp.getPrimaryGroup(p) : resolver.resolveGroup(p);
-        GroupManager.GroupData data = groups.getGroup(g);
+    private GroupManager.GroupData groupOf(String groupName) {
+        GroupManager.GroupData data = groups.getGroup(groupName);
         return data != null ? data : groups.getGroup("default");
     }
 
+    public boolean useNativeComponents() {
+        return config.isNativeComponentsEnabled() && PaperComponents.isAvailable();
+    }
+
+    public boolean useSharedTeams() {
+        if (!config.isSharedTeamsEnabled()) return false;
+        return !hasPerPlayerTokens(config.getTabBeforePlayer()) && !hasPerPlayerTokens(config.getTabAfterPlayer());
+    }
+
+    private static boolean hasPerPlayerTokens(FormatTemplate template) {
+        return template.contains(FormatTemplate.Token.DISPLAYNAME) || template.contains(FormatTemplate.Token.PLAYER);
+    }
+
     private String teamIdFor(Player p, int priority) {
-        String sort = String.format("%03d", Math.max(0, Math.min(999, priority)));
         String tail = p.getName().toLowerCase();
         tail = tail.substring(0, Math.min(8, tail.length()));
-        String id = TEAM_NS + "_" + sort + "_" + tail;
+        String id = TEAM_NS + "_" + sortKey(priority) + "_" + tail;
         return id.length() <= 16 ? id : id.substring(0, 16);
     }
 
-    private String[] splitAroundPlayer(String format) {
-        String f = (format == null || format.isEmpty()) ? "{prefix} {player}" : format;
-        int idx = f.indexOf("{player}");
-        if (idx < 0) return new String[]{f, ""};
-        return new String[]{f.substring(0, idx), f.substring(idx + "{player}".length())};
-    }
-
-    private String replaceTokens(String part, GroupManager.GroupData g, Player p, boolean before) {
-        String nameColor = (g.nameColor != null && !g.nameColor.isEmpty()) ? "<" + g.nameColor + ">" : "";
-        String out = part
-                .replace("{prefix}", g.prefix != null ? g.prefix : "")
-                .replace("{suffix}", g.suffix != null ? g.suffix : "")
-                .replace("{displayname}", p.getDisplayName())
-                .replace("{message}", "");
-        if (before) out = out + nameColor;
-        return out;
-    }
-
-    private String limit(String s, int max) {
-        if (s == null) return "";
-        int count = 0;
-        StringBuilder b = new StringBuilder();
-        for (int i = 0; i < s.length(); i++) {
-            char c = s.charAt(i);
-            if (c == '§' && i + 1 < s.length()) {
-                if (count + 2 > max) break;
-                b.append(c).append(s.charAt(++i));
-                count += 2;
-                continue;
-            }
-            if (count + 1 > max) break;
-            b.append(c);
-            count++;
+    private String sharedTeamIdFor(String groupName, int priority, String prefix, String suffix) {
+        String key = groupName.toLowerCase() + '\0' + prefix + '\0' + suffix;
+        String hash = String.format("%08x", key.hashCode());
+        String id = TEAM_NS + "_" + sortKey(priority) + "_#" + hash;
+
+        String owner = sharedTeamKeys.putIfAbsent(id, key);
+        if (owner != null && !owner.equals(key)) {
+            return null;
+        }
+        return id;
+    }
+
+    private static String sortKey(int priority) {
+        return String.format("%03d", Math.max(0, Math.min(999, priority)));
+    }
+
+    private String renderBefore(GroupManager.GroupData g, Player p) {
+        StringBuilder out = RENDER_BUFFER.get();
+        out.setLength(0);
+        config.getTabBeforePlayer().appendTo(out, g.prefix, g.suffix, null, p.getDisplayName(), "");
+        if (g.nameColor != null && !g.nameColor.isEmpty()) {
+            out.append('<').append(g.nameColor).append('>');
+        }
+        return out.toString();
+    }
+
+    private String renderAfter(GroupManager.GroupData g, Player p) {
+        return config.getTabAfterPlayer().render(g.prefix, g.suffix, null, p.getDisplayName(), "");
+    }
+
+    private static final class AppliedTeam {
+        final String teamId;
+        final String prefix;
+        final String suffix;
+        final int priority;
+        final long revision;
+
+        AppliedTeam(String teamId, String prefix, String suffix, int priority, long revision) {
+            this.teamId = teamId;
+            this.prefix = prefix;
+            this.suffix = suffix;
+            this.priority = priority;
+            this.revision = revision;
+        }
+
+        boolean matches(String teamId, String prefix, String suffix) {
+            return this.teamId.equals(teamId) && this.prefix.equals(prefix) && this.suffix.equals(suffix);
+        }
+    }
+
+    public static final class RenderedTeam {
+        public final String groupName;
+        public final int priority;
+        public final String prefix;
+        public final String suffix;
+        public final Component prefixComponent;
+        public final Component suffixComponent;
+        public final String listName;
+        public final Component listNameComponent;
+        public final TabChatManager.ChatFormat chatFormat;
+
+        public RenderedTeam(String groupName, int priority, String prefix, String suffix,
+                            Component prefixComponent, Component suffixComponent,
+                            String listName, Component listNameComponent,
+                            TabChatManager.ChatFormat chatFormat) {
+            this.groupName = groupName;
+            this.priority = priority;
+            this.prefix = prefix;
+            this.suffix = suffix;
+            this.prefixComponent = prefixComponent;
+            this.suffixComponent = suffixComponent;
+            this.listName = listName;
+            this.listNameComponent = listNameComponent;
+            this.chatFormat = chatFormat;
         }
-        return b.toString();
     }
 }
@@ -0,0 +1,151 @@
+package de.astranox.simpleprefix.managers;
+
+import de.astranox.simpleprefix.SimplePrefix;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+public class YamlGroupStore implements GroupStore {
+
+    private static final String HEADER = "This Plugin supports in Prefix an in Suffix MiniMessage or Legacy Color Codes";
+
+    private final SimplePrefix plugin;
+    private final File groupsFile;
+    private final GroupJournal journal;
+    private GroupRegistry fileState = GroupRegistry.empty();
+
+    public YamlGroupStore(SimplePrefix plugin, File groupsFile, GroupJournal journal) {
+        this.plugin = plugin;
+        this.groupsFile = groupsFile;
+        this.journal = journal;
+    }
+
+    @Override
+    public String getName() {
+        return groupsFile.getName();
+    }
+
+    @Override
+    public synchronized GroupRegistry load() throws IOException {
+        fileState = readFile();
+        GroupRegistry registry = journal.replay(fileState);
+
+        if (!journal.isEmpty() && !plugin.getConfigManager().isJournalEnabled()) {
+            compact(registry);
+        }
+        return registry;
+    }
+
+    @Override
+    public synchronized GroupRegistry refresh(GroupRegistry current) throws IOException {
+        GroupRegistry previous = fileState;
+        GroupRegistry file = readFile();
+        fileState = file;
+
+        Map<String, GroupManager.GroupData> edited = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (String groupName : previous.changedGroups(file)) {
+            GroupManager.GroupData data = file.get(groupName);
+
+            if (!Objects.equals(previous.get(groupName), current.get(groupName))) {
+                plugin.getLogger().warning("Group '" + groupName + "' was changed both in-game and in groups.yml, keeping the groups.yml version!");
+            }
+            edited.put(data != null ? file.canonicalName(groupName) : groupName, data);
+        }
+
+        GroupRegistry merged = current.withChanges(edited);
+        if (!edited.isEmpty() && !journal.isEmpty()) {
+            compact(merged);
+        }
+        return merged;
+    }
+
+    @Override
+    public synchronized void save(Collection<String> groupNames, GroupRegistry registry) throws IOException {
+        if (!plugin.getConfigManager().isJournalEnabled()) {
+            compact(registry);
+            return;
+        }
+
+        journal.append(groupNames, registry);
+        if (journal.size() >= plugin.getConfigManager().getJournalCompactBytes()) {
+            compact(registry);
+        }
+    }
+
+    @Override
+    public boolean hasExternalChanges() {
+        return false;
+    }
+
+    @Override
+    public synchronized void close(GroupRegistry registry) {
+        if (journal.isEmpty()) {
+            return;
+        }
+
+        try {
+            compact(registry);
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to compact groups.journal into groups.yml!");
+            e.printStackTrace();
+        }
+    }
+
+    private GroupRegistry readFile() {
+        YamlConfiguration groupsConfig = YamlConfiguration.loadConfiguration(groupsFile);
+        return GroupRegistry.fromConfig(groupsConfig.getConfigurationSection("groups"));
+    }
+
+    private void compact(GroupRegistry registry) throws IOException {
+        write(serialize(registry));
+        journal.clear();
+        fileState = registry;
+    }
+
+    private String serialize(GroupRegistry registry) {
+        YamlConfiguration yaml = new YamlConfiguration();
+        yaml.options().header(HEADER);
+
+        for (Map.Entry<String, GroupManager.GroupData> e : registry.asMap().entrySet()) {
+            String path = "groups." + e.getKey();
+            GroupManager.GroupData data = e.getValue();
+
+            yaml.set(path + ".prefix", data.prefix != null ? data.prefix : "");
+            yaml.set(path + ".suffix", data.suffix != null ? data.suffix : "");
+            yaml.set(path + ".priority", data.priority);
+
+            if (data.nameColor != null && !data.nameColor.isEmpty()) {
+                yaml.set(path + ".nameColor", data.nameColor);
+            }
+        }
+
+        return yaml.saveToString();
+    }
+
+    private void write(String content) throws IOException {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        Path target = groupsFile.toPath();
+        Path temp = target.resolveSibling(groupsFile.getName() + ".tmp");
+
+        Files.write(temp, bytes);
+        if (plugin.getConfigWatcher() != null) {
+            plugin.getConfigWatcher().recordWrite(groupsFile.getName(), bytes);
+        }
+
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package de.astranox.simpleprefix.metrics;
+
+import de.astranox.simpleprefix.util.ComponentParser;
+import de.astranox.simpleprefix.util.RenderCache;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public class PluginMetrics {
+
+    private final LongAdder renders = new LongAdder();
+    private final LongAdder teamUpdates = new LongAdder();
+    private final LongAdder teamNoops = new LongAdder();
+    private final LongAdder scoreboardMutations = new LongAdder();
+    private final LongAdder saves = new LongAdder();
+    private final LongAdder saveFailures = new LongAdder();
+    private final ConcurrentHashMap<String, LongAdder> luckPermsEvents = new ConcurrentHashMap<>();
+    private final LatencyHistogram renderTime = new LatencyHistogram();
+    private final LatencyHistogram chatFormatTime = new LatencyHistogram();
+    private final LatencyHistogram saveTime = new LatencyHistogram();
+
+    public void recordRender(long nanos) {
+        renders.increment();
+        renderTime.record(nanos);
+    }
+
+    public void recordTeamUpdate(int mutations) {
+        teamUpdates.increment();
+        scoreboardMutations.add(mutations);
+    }
+
+    public void recordTeamNoop() {
+        teamNoops.increment();
+    }
+
+    public void recordScoreboardMutations(int mutations) {
+        scoreboardMutations.add(mutations);
+    }
+
+    public void recordLuckPermsEvent(String type) {
+        LongAdder counter = luckPermsEvents.get(type);
+        if (counter == null) {
+            counter = luckPermsEvents.computeIfAbsent(type, k -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    public void recordSave(long nanos, boolean success) {
+        saves.increment();
+        if (!success) saveFailures.increment();
+        saveTime.record(nanos);
+    }
+
+    public void recordChatFormat(long nanos) {
+        chatFormatTime.record(nanos);
+    }
+
+    public long getRenders() {
+        return renders.sum();
+    }
+
+    public long getTeamUpdates() {
+        return teamUpdates.sum();
+    }
+
+    public long getTeamNoops() {
+        return teamNoops.sum();
+    }
+
+    public long getScoreboardMutations() {
+        return scoreboardMutations.sum();
+    }
+
+    public long getSaves() {
+        return saves.sum();
+    }
+
+    public long getSaveFailures() {
+        return saveFailures.sum();
+    }
+
+    public Map<String, Long> getLuckPermsEvents() {
+        Map<String, Long> out = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> e : luckPermsEvents.entrySet()) {
+            out.put(e.getKey(), e.getValue().sum());
+        }
+        return out;
+    }
+
+    public RenderCache<?, String> getLegacyCache() {
+        return ComponentParser.getCache();
+    }
+
+    public RenderCache<?, ?> getComponentCache() {
+        return ComponentParser.getComponentCache();
+    }
+
+    public RenderCache<?, String> getLimitedCache() {
+        return ComponentParser.getLimitedCache();
+    }
+
+    public LatencyHistogram getRenderTime() {
+        return renderTime;
+    }
+
+    public LatencyHistogram getChatFormatTime() {
+        return chatFormatTime;
+    }
+
+    public LatencyHistogram getSaveTime() {
+        return saveTime;
+    }
+}
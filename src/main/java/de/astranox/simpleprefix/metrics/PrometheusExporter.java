@@ -0,0 +1,111 @@
+package de.astranox.simpleprefix.metrics;
+
+import de.astranox.simpleprefix.SimplePrefix;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Map;
+
+public class PrometheusExporter {
+
+    private static final String NS = "simpleprefix_";
+
+    private final SimplePrefix plugin;
+    private final PluginMetrics metrics;
+    private final File file;
+
+    public PrometheusExporter(SimplePrefix plugin, PluginMetrics metrics) {
+        this.plugin = plugin;
+        this.metrics = metrics;
+        this.file = new File(plugin.getDataFolder(), "metrics.prom");
+    }
+
+    public void write() {
+        try {
+            Path target = file.toPath();
+            Path temp = target.resolveSibling(file.getName() + ".tmp");
+
+            Files.write(temp, render().getBytes(StandardCharsets.UTF_8));
+
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to write metrics.prom: " + e.getMessage());
+        }
+    }
+
+    public String render() {
+        StringBuilder out = new StringBuilder(4096);
+
+        counter(out, "renders_total", "Tab prefix and suffix renders", metrics.getRenders());
+        histogram(out, "render_seconds", "Time spent rendering a player's team", metrics.getRenderTime());
+
+        header(out, "cache_hits_total", "Render cache hits", "counter");
+        cacheSample(out, "cache_hits_total", "legacy", metrics.getLegacyCache().getHits());
+        cacheSample(out, "cache_hits_total", "component", metrics.getComponentCache().getHits());
+        cacheSample(out, "cache_hits_total", "limited", metrics.getLimitedCache().getHits());
+        header(out, "cache_misses_total", "Render cache misses", "counter");
+        cacheSample(out, "cache_misses_total", "legacy", metrics.getLegacyCache().getMisses());
+        cacheSample(out, "cache_misses_total", "component", metrics.getComponentCache().getMisses());
+        cacheSample(out, "cache_misses_total", "limited", metrics.getLimitedCache().getMisses());
+
+        counter(out, "team_updates_total", "Team updates applied to the scoreboard", metrics.getTeamUpdates());
+        counter(out, "team_noops_total", "Team updates skipped because nothing changed", metrics.getTeamNoops());
+        counter(out, "scoreboard_mutations_total", "Scoreboard team and entry changes", metrics.getScoreboardMutations());
+
+        header(out, "luckperms_events_total", "LuckPerms events received", "counter");
+        for (Map.Entry<String, Long> e : metrics.getLuckPermsEvents().entrySet()) {
+            out.append(NS).append("luckperms_events_total{type=\"").append(e.getKey()).append("\"} ")
+                    .append(e.getValue()).append('\n');
+        }
+
+        counter(out, "yaml_saves_total", "YAML files written", metrics.getSaves());
+        counter(out, "yaml_save_failures_total", "YAML writes that failed", metrics.getSaveFailures());
+        histogram(out, "yaml_save_seconds", "Time spent writing a YAML file", metrics.getSaveTime());
+
+        histogram(out, "chat_format_seconds", "Time spent formatting a chat message", metrics.getChatFormatTime());
+        return out.toString();
+    }
+
+    private static void cacheSample(StringBuilder out, String name, String cache, long value) {
+        out.append(NS).append(name).append("{cache=\"").append(cache).append("\"} ").append(value).append('\n');
+    }
+
+    private static void counter(StringBuilder out, String name, String help, long value) {
+        header(out, name, help, "counter");
+        out.append(NS).append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void histogram(StringBuilder out, String name, String help, LatencyHistogram histogram) {
+        header(out, name, help, "histogram");
+
+        long[] bounds = LatencyHistogram.getBoundsMicros();
+        long[] counts = histogram.snapshot();
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            String le = i < bounds.length ? seconds(bounds[i] * 1000L) : "+Inf";
+            out.append(NS).append(name).append("_bucket{le=\"").append(le).append("\"} ").append(cumulative).append('\n');
+        }
+        out.append(NS).append(name).append("_sum ").append(seconds(histogram.getSumNanos())).append('\n');
+        out.append(NS).append(name).append("_count ").append(cumulative).append('\n');
+    }
+
+    private static void header(StringBuilder out, String name, String help, String type) {
+        out.append("# HELP ").append(NS).append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(NS).append(name).append(' ').append(type).append('\n');
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.6f", nanos / 1_000_000_000.0);
+    }
+}
@@ -0,0 +1,144 @@
+package de.astranox.simpleprefix.metrics;
+
+import de.astranox.simpleprefix.SimplePrefix;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+public class Stats implements StatsMXBean {
+
+    private static final String OBJECT_NAME = "de.astranox.simpleprefix:type=Stats";
+
+    private final PluginMetrics metrics;
+
+    public Stats(PluginMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public static boolean register(SimplePrefix plugin, PluginMetrics metrics) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            try {
+                server.registerMBean(new Stats(metrics), name);
+            } catch (InstanceAlreadyExistsException e) {
+                server.unregisterMBean(name);
+                server.registerMBean(new Stats(metrics), name);
+            }
+            return true;
+        } catch (JMException | SecurityException e) {
+            plugin.getLogger().warning("Could not register JMX stats: " + e.getMessage());
+            return false;
+        }
+    }
+
+    public static void unregister() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException | SecurityException ignored) {
+        }
+    }
+
+    @Override
+    public long getRenders() {
+        return metrics.getRenders();
+    }
+
+    @Override
+    public double getRenderMeanMicros() {
+        return metrics.getRenderTime().getMeanMicros();
+    }
+
+    @Override
+    public long getRenderP99Micros() {
+        return metrics.getRenderTime().percentileMicros(0.99);
+    }
+
+    @Override
+    public long getRenderCacheHits() {
+        return metrics.getLegacyCache().getHits();
+    }
+
+    @Override
+    public long getRenderCacheMisses() {
+        return metrics.getLegacyCache().getMisses();
+    }
+
+    @Override
+    public long getComponentCacheHits() {
+        return metrics.getComponentCache().getHits();
+    }
+
+    @Override
+    public long getComponentCacheMisses() {
+        return metrics.getComponentCache().getMisses();
+    }
+
+    @Override
+    public long getLimitedCacheHits() {
+        return metrics.getLimitedCache().getHits();
+    }
+
+    @Override
+    public long getLimitedCacheMisses() {
+        return metrics.getLimitedCache().getMisses();
+    }
+
+    @Override
+    public long getTeamUpdates() {
+        return metrics.getTeamUpdates();
+    }
+
+    @Override
+    public long getTeamNoops() {
+        return metrics.getTeamNoops();
+    }
+
+    @Override
+    public long getScoreboardMutations() {
+        return metrics.getScoreboardMutations();
+    }
+
+    @Override
+    public Map<String, Long> getLuckPermsEvents() {
+        return metrics.getLuckPermsEvents();
+    }
+
+    @Override
+    public long getYamlSaves() {
+        return metrics.getSaves();
+    }
+
+    @Override
+    public long getYamlSaveFailures() {
+        return metrics.getSaveFailures();
+    }
+
+    @Override
+    public double getYamlSaveMeanMillis() {
+        return metrics.getSaveTime().getMeanMicros() / 1000.0;
+    }
+
+    @Override
+    public long getChatFormats() {
+        return metrics.getChatFormatTime().getCount();
+    }
+
+    @Override
+    public double getChatFormatMeanMicros() {
+        return metrics.getChatFormatTime().getMeanMicros();
+    }
+
+    @Override
+    public long getChatFormatP99Micros() {
+        return metrics.getChatFormatTime().percentileMicros(0.99);
+    }
+}
@@ -0,0 +1,44 @@
+package de.astranox.simpleprefix.metrics;
+
+import java.util.Map;
+
+public interface StatsMXBean {
+
+    long getRenders();
+
+    double getRenderMeanMicros();
+
+    long getRenderP99Micros();
+
+    long getRenderCacheHits();
+
+    long getRenderCacheMisses();
+
+    long getComponentCacheHits();
+
+    long getComponentCacheMisses();
+
+    long getLimitedCacheHits();
+
+    long getLimitedCacheMisses();
+
+    long getTeamUpdates();
+
+    long getTeamNoops();
+
+    long getScoreboardMutations();
+
+    Map<String, Long> getLuckPermsEvents();
+
+    long getYamlSaves();
+
+    long getYamlSaveFailures();
+
+    double getYamlSaveMeanMillis();
+
+    long getChatFormats();
+
+    double getChatFormatMeanMicros();
+
+    long getChatFormatP99Micros();
+}
@@ -6,6 +6,16 @@ import net.kyori.adventure.text.minimessage.MiniMessage;
 import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
 
 public class ComponentParser {
+    private static final int CACHE_SIZE = 1024;
+    private static final RenderCache<String, String> CACHE = new RenderCache<>(CACHE_SIZE);
+    private static final RenderCache<String, Component> COMPONENT_CACHE = new RenderCache<>(CACHE_SIZE);
+    private static final RenderCache<LimitedKey, String> LIMITED_CACHE = new RenderCache<>(CACHE_SIZE);
+    private static final LegacyComponentSerializer HEX_SECTION = LegacyComponentSerializer.builder()
+            .character(BukkitColor.COLOR_CHAR)
+            .hexColors()
+            .useUnusualXRepeatedCharacterHexFormat()
+            .build();
+
     private final SimplePrefix plugin;
     private final MiniMessage miniMessage;
 
@@ -14,24 +24,102 @@ public class ComponentParser {
         this.miniMessage = MiniMessage.miniMessage();
     }
 
+    public static void invalidateCache() {
+        CACHE.clear();
+        COMPONENT_CACHE.clear();
+        LIMITED_CACHE.clear();
+    }
+
+    public static RenderCache<String, String> getCache() {
+        return CACHE;
+    }
+
+    public static RenderCache<String, Component> getComponentCache() {
+        return COMPONENT_CACHE;
+    }
+
+    public static RenderCache<?, String> getLimitedCache() {
+        return LIMITED_CACHE;
+    }
+
     public String parse(String text) {
         if (text == null || text.isEmpty()) return "";
+        return CACHE.get(text, t -> render(t, Integer.MAX_VALUE));
+    }
+
+    public String parse(String text, int limit) {
+        if (text == null || text.isEmpty()) return "";
+        return LIMITED_CACHE.get(new LimitedKey(limit, text), key -> render(key.text, key.limit));
+    }
+
+    public String parseUncached(String text) {
+        if (text == null || text.isEmpty()) return "";
+        return render(text, Integer.MAX_VALUE);
+    }
+
+    public Component parseComponent(String text) {
+        if (text == null || text.isEmpty()) return Component.empty();
+        return COMPONENT_CACHE.get(text, this::renderComponent);
+    }
+
+    public Component parseComponentUncached(String text) {
+        if (text == null || text.isEmpty()) return Component.empty();
+        return renderComponent(text);
+    }
 
+    public static String serialize(Component component) {
+        return HEX_SECTION.serialize(component);
+    }
+
+    private String render(String text, int limit) {
         try {
             Component component = miniMessage.deserialize(text);
             String legacy = LegacyComponentSerializer.legacySection().serialize(component);
+            return LegacyTranscoder.transcode(legacy, VersionUtil.isLegacyVersion(), limit);
+        } catch (Exception e) {
+            plugin.getLogger().warning("ComponentParser error for: " + text);
+            e.printStackTrace();
+            return text.replaceAll("<[^>]*>", "");
+        }
+    }
 
-            if (VersionUtil.isLegacyVersion()) {
-
-                legacy = legacy.replaceAll("(?i)(§x(§[0-9A-F]){6})", "");
-                legacy = legacy.replaceAll("(?i)§[lmnok]", "");
+    private Component renderComponent(String text) {
+        try {
+            Component component = miniMessage.deserialize(text);
+            if (text.indexOf(BukkitColor.REPLACEMENT_CHAR) < 0 && text.indexOf(BukkitColor.COLOR_CHAR) < 0) {
+                return component;
             }
 
-            return BukkitColor.apply(legacy);
+            return HEX_SECTION.deserialize(BukkitColor.apply(HEX_SECTION.serialize(component)));
         } catch (Exception e) {
             plugin.getLogger().warning("ComponentParser error for: " + text);
             e.printStackTrace();
-            return text.replaceAll("<[^>]*>", "");
+            return Component.text(text.replaceAll("<[^>]*>", ""));
+        }
+    }
+
+    private static final class LimitedKey {
+        final int limit;
+        final String text;
+        final int hash;
+
+        LimitedKey(int limit, String text) {
+            this.limit = limit;
+            this.text = text;
+            this.hash = 31 * limit + text.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof LimitedKey)) return false;
+            LimitedKey other = (LimitedKey) o;
+            return limit == other.limit && text.equals(other.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,153 @@
+package de.astranox.simpleprefix.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public final class FormatTemplate {
+
+    public enum Token {
+        LITERAL(null),
+        PREFIX("{prefix}"),
+        SUFFIX("{suffix}"),
+        PLAYER("{player}"),
+        DISPLAYNAME("{displayname}"),
+        MESSAGE("{message}");
+
+        private final String placeholder;
+
+        Token(String placeholder) {
+            this.placeholder = placeholder;
+        }
+
+        public String getPlaceholder() {
+            return placeholder;
+        }
+    }
+
+    public static final class Segment {
+        public final Token token;
+        public final String literal;
+
+        private Segment(Token token, String literal) {
+            this.token = token;
+            this.literal = literal;
+        }
+    }
+
+    private static final Token[] PLACEHOLDERS = {
+            Token.PREFIX, Token.SUFFIX, Token.PLAYER, Token.DISPLAYNAME, Token.MESSAGE
+    };
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(128));
+
+    private final String source;
+    private final List<Segment> segments;
+
+    private FormatTemplate(String source, List<Segment> segments) {
+        this.source = source;
+        this.segments = Collections.unmodifiableList(segments);
+    }
+
+    public static FormatTemplate compile(String format) {
+        String f = format != null ? format : "";
+        List<Segment> segments = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+
+        while (i < f.length()) {
+            Token matched = f.charAt(i) == '{' ? matchAt(f, i) : null;
+
+            if (matched == null) {
+                literal.append(f.charAt(i++));
+                continue;
+            }
+
+            if (literal.length() > 0) {
+                segments.add(new Segment(Token.LITERAL, literal.toString()));
+                literal.setLength(0);
+            }
+            segments.add(new Segment(matched, null));
+            i += matched.placeholder.length();
+        }
+
+        if (literal.length() > 0) {
+            segments.add(new Segment(Token.LITERAL, literal.toString()));
+        }
+
+        return new FormatTemplate(f, segments);
+    }
+
+    public static FormatTemplate[] splitAroundPlayer(String format) {
+        String f = (format == null || format.isEmpty()) ? "{prefix} {player}" : format;
+        int idx = f.indexOf(Token.PLAYER.placeholder);
+        if (idx < 0) return new FormatTemplate[]{compile(f), compile("")};
+        return new FormatTemplate[]{
+                compile(f.substring(0, idx)),
+                compile(f.substring(idx + Token.PLAYER.placeholder.length()))
+        };
+    }
+
+    private static Token matchAt(String f, int i) {
+        for (Token token : PLACEHOLDERS) {
+            if (f.startsWith(token.placeholder, i)) {
+                return token;
+            }
+        }
+        return null;
+    }
+
+    public String render(String prefix, String suffix, String player, String displayName, String message) {
+        StringBuilder out = BUFFER.get();
+        out.setLength(0);
+        appendTo(out, prefix, suffix, player, displayName, message);
+        return out.toString();
+    }
+
+    public StringBuilder appendTo(StringBuilder out, String prefix, String suffix,
+                                  String player, String displayName, String message) {
+        for (int i = 0; i < segments.size(); i++) {
+            Segment s = segments.get(i);
+            switch (s.token) {
+                case LITERAL:
+                    out.append(s.literal);
+                    break;
+                case PREFIX:
+                    append(out, prefix);
+                    break;
+                case SUFFIX:
+                    append(out, suffix);
+                    break;
+                case PLAYER:
+                    append(out, player);
+                    break;
+                case DISPLAYNAME:
+                    append(out, displayName);
+                    break;
+                case MESSAGE:
+                    append(out, message);
+                    break;
+            }
+        }
+        return out;
+    }
+
+    private static void append(StringBuilder out, String value) {
+        if (value != null) out.append(value);
+    }
+
+    public boolean contains(Token token) {
+        for (Segment s : segments) {
+            if (s.token == token) return true;
+        }
+        return false;
+    }
+
+    public List<Segment> getSegments() {
+        return segments;
+    }
+
+    public String getSource() {
+        return source;
+    }
+}
@@ -0,0 +1,116 @@
+package de.astranox.simpleprefix.util;
+
+public final class LegacyTranscoder {
+
+    private static final char[] CODES = "0123456789abcdef".toCharArray();
+    private static final int[] RGB = {
+            0x000000, 0x0000AA, 0x00AA00, 0x00AAAA, 0xAA0000, 0xAA00AA, 0xFFAA00, 0xAAAAAA,
+            0x555555, 0x5555FF, 0x55FF55, 0x55FFFF, 0xFF5555, 0xFF55FF, 0xFFFF55, 0xFFFFFF
+    };
+    private static final byte[] NEAREST = new byte[16 * 16 * 16];
+    private static final int HEX_RUN = 14;
+
+    static {
+        for (int i = 0; i < NEAREST.length; i++) {
+            NEAREST[i] = (byte) nearest(((i >> 8) & 0xF) * 17, ((i >> 4) & 0xF) * 17, (i & 0xF) * 17);
+        }
+    }
+
+    private LegacyTranscoder() {
+    }
+
+    public static String truncate(String text, int limit) {
+        if (text == null) return "";
+        if (text.length() <= limit) return text;
+        return transcode(text, false, limit);
+    }
+
+    public static String transcode(String text, boolean downsample, int limit) {
+        if (text == null || text.isEmpty()) return "";
+
+        int length = text.length();
+        StringBuilder out = new StringBuilder(Math.min(length, limit));
+        int i = 0;
+
+        while (i < length) {
+            char c = text.charAt(i);
+            char code = i + 1 < length && isMarker(c) ? codeAt(text, i + 1) : 0;
+
+            if (code == 0) {
+                if (out.length() + 1 > limit) break;
+                out.append(c);
+                i++;
+                continue;
+            }
+
+            if (code == 'x' && isHexRun(text, i)) {
+                if (downsample) {
+                    if (out.length() + 2 > limit) break;
+                    out.append(BukkitColor.COLOR_CHAR).append(CODES[NEAREST[hexIndex(text, i)]]);
+                } else {
+                    if (out.length() + HEX_RUN > limit) break;
+                    out.append(BukkitColor.COLOR_CHAR).append('x');
+                    for (int j = i + 3; j < i + HEX_RUN; j += 2) {
+                        out.append(BukkitColor.COLOR_CHAR).append(Character.toLowerCase(text.charAt(j)));
+                    }
+                }
+                i += HEX_RUN;
+                continue;
+            }
+
+            i += 2;
+            if (downsample && isUnsupported(code)) continue;
+            if (out.length() + 2 > limit) break;
+            out.append(BukkitColor.COLOR_CHAR).append(code);
+        }
+
+        return out.toString();
+    }
+
+    private static boolean isMarker(char c) {
+        return c == BukkitColor.COLOR_CHAR || c == BukkitColor.REPLACEMENT_CHAR;
+    }
+
+    private static char codeAt(String text, int i) {
+        char c = Character.toLowerCase(text.charAt(i));
+        if ((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'k' && c <= 'o') || c == 'r' || c == 'x') {
+            return c;
+        }
+        return 0;
+    }
+
+    private static boolean isUnsupported(char code) {
+        return (code >= 'k' && code <= 'o') || code == 'x';
+    }
+
+    private static boolean isHexRun(String text, int start) {
+        if (start + HEX_RUN > text.length()) return false;
+        for (int j = start + 2; j < start + HEX_RUN; j += 2) {
+            if (!isMarker(text.charAt(j)) || Character.digit(text.charAt(j + 1), 16) < 0) return false;
+        }
+        return true;
+    }
+
+    private static int hexIndex(String text, int start) {
+        int r = Character.digit(text.charAt(start + 3), 16);
+        int g = Character.digit(text.charAt(start + 7), 16);
+        int b = Character.digit(text.charAt(start + 11), 16);
+        return (r << 8) | (g << 4) | b;
+    }
+
+    private static int nearest(int r, int g, int b) {
+        int best = 0;
+        long bestDistance = Long.MAX_VALUE;
+        for (int i = 0; i < RGB.length; i++) {
+            int dr = r - ((RGB[i] >> 16) & 0xFF);
+            int dg = g - ((RGB[i] >> 8) & 0xFF);
+            int db = b - (RGB[i] & 0xFF);
+            long distance = 2L * dr * dr + 4L * dg * dg + 3L * db * db;
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = i;
+            }
+        }
+        return best;
+    }
+}
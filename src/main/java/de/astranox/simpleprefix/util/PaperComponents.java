@@ -0,0 +1,148 @@
+package de.astranox.simpleprefix.util;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextReplacementConfig;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerEvent;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scoreboard.Team;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+public final class PaperComponents {
+
+    private static final String MESSAGE_PLACEHOLDER = "%2$s";
+
+    private static final Method TEAM_PREFIX = method(Team.class, "prefix");
+    private static final Method TEAM_SET_PREFIX = method(Team.class, "prefix", Component.class);
+    private static final Method TEAM_SUFFIX = method(Team.class, "suffix");
+    private static final Method TEAM_SET_SUFFIX = method(Team.class, "suffix", Component.class);
+    private static final Method PLAYER_SET_LIST_NAME = method(Player.class, "playerListName", Component.class);
+
+    private static final Class<?> CHAT_EVENT = type("io.papermc.paper.event.player.AsyncChatEvent");
+    private static final Class<?> CHAT_RENDERER = type("io.papermc.paper.chat.ChatRenderer");
+    private static final Method CHAT_SET_RENDERER = CHAT_EVENT != null && CHAT_RENDERER != null
+            ? method(CHAT_EVENT, "renderer", CHAT_RENDERER)
+            : null;
+
+    private static volatile boolean available = TEAM_PREFIX != null && TEAM_SET_PREFIX != null
+            && TEAM_SUFFIX != null && TEAM_SET_SUFFIX != null && PLAYER_SET_LIST_NAME != null;
+    private static volatile Logger logger = Logger.getLogger(PaperComponents.class.getName());
+
+    private PaperComponents() {
+    }
+
+    public static void setLogger(Logger pluginLogger) {
+        logger = pluginLogger;
+    }
+
+    public static boolean isAvailable() {
+        return available;
+    }
+
+    public static boolean isChatAvailable() {
+        return available && CHAT_SET_RENDERER != null;
+    }
+
+    public static boolean setTeamPrefix(Team team, Component prefix) {
+        return set(team, TEAM_PREFIX, TEAM_SET_PREFIX, prefix);
+    }
+
+    public static boolean setTeamSuffix(Team team, Component suffix) {
+        return set(team, TEAM_SUFFIX, TEAM_SET_SUFFIX, suffix);
+    }
+
+    public static boolean setPlayerListName(Player player, Component name) {
+        if (!available) return false;
+        try {
+            PLAYER_SET_LIST_NAME.invoke(player, name);
+            return true;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            disable(e);
+            return false;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public static boolean registerChatRenderer(Plugin plugin, Listener listener, EventPriority priority,
+                                               Function<Player, Component> formats) {
+        if (!isChatAvailable()) return false;
+
+        Class<? extends Event> eventClass = (Class<? extends Event>) CHAT_EVENT.asSubclass(Event.class);
+        Bukkit.getPluginManager().registerEvent(eventClass, listener, priority, (l, event) -> {
+            if (!CHAT_EVENT.isInstance(event)) return;
+
+            Component format = formats.apply(((PlayerEvent) event).getPlayer());
+            if (format == null) return;
+
+            try {
+                CHAT_SET_RENDERER.invoke(event, renderer(format));
+            } catch (ReflectiveOperationException | LinkageError e) {
+                plugin.getLogger().warning("Failed to apply chat renderer: " + e.getMessage());
+            }
+        }, plugin, true);
+        return true;
+    }
+
+    private static Object renderer(Component format) {
+        return Proxy.newProxyInstance(CHAT_RENDERER.getClassLoader(), new Class<?>[]{CHAT_RENDERER}, (proxy, m, args) -> {
+            switch (m.getName()) {
+                case "render":
+                    return format.replaceText(TextReplacementConfig.builder()
+                            .matchLiteral(MESSAGE_PLACEHOLDER)
+                            .replacement((Component) args[2])
+                            .build());
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "SimplePrefixChatRenderer";
+                default:
+                    return null;
+            }
+        });
+    }
+
+    private static boolean set(Team team, Method getter, Method setter, Component value) {
+        if (!available) return false;
+        try {
+            if (value.equals(getter.invoke(team))) {
+                return false;
+            }
+            setter.invoke(team, value);
+            return true;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            disable(e);
+            return false;
+        }
+    }
+
+    private static void disable(Throwable e) {
+        available = false;
+        logger.warning("Native component API failed, falling back to legacy strings: " + e);
+    }
+
+    private static Method method(Class<?> owner, String name, Class<?>... parameters) {
+        try {
+            return owner.getMethod(name, parameters);
+        } catch (NoSuchMethodException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private static Class<?> type(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package de.astranox.simpleprefix.util;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+public class RenderCache<K, V> {
+
+    private static final int SAMPLE_SIZE = 64;
+    private static final long TOUCH_GRANULARITY_NANOS = 1_000_000L;
+
+    private final int maxSize;
+    private final int trimTo;
+    private final ConcurrentHashMap<K, Entry<V>> entries;
+    private final AtomicBoolean evicting = new AtomicBoolean(false);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public RenderCache(int maxSize) {
+        this.maxSize = Math.max(16, maxSize);
+        this.trimTo = this.maxSize * 3 / 4;
+        this.entries = new ConcurrentHashMap<>(this.maxSize * 4 / 3 + 1);
+    }
+
+    public V get(K key, Function<? super K, V> loader) {
+        Entry<V> entry = entries.get(key);
+
+        if (entry != null) {
+            long now = System.nanoTime();
+            if (now - entry.lastAccess > TOUCH_GRANULARITY_NANOS) {
+                entry.lastAccess = now;
+            }
+            hits.increment();
+            return entry.value;
+        }
+
+        misses.increment();
+        V value = loader.apply(key);
+        entries.put(key, new Entry<>(value, System.nanoTime()));
+
+        if (entries.size() > maxSize) {
+            evict();
+        }
+        return value;
+    }
+
+    private void evict() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            int size = entries.size();
+            int excess = size - trimTo;
+            if (excess <= 0) return;
+
+            long cutoff = sampleCutoff(size, excess);
+            Iterator<Entry<V>> it = entries.values().iterator();
+            while (excess > 0 && it.hasNext()) {
+                if (it.next().lastAccess <= cutoff) {
+                    it.remove();
+                    evictions.increment();
+                    excess--;
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private long sampleCutoff(int size, int excess) {
+        long[] sample = new long[Math.min(SAMPLE_SIZE, size)];
+        int stride = Math.max(1, size / sample.length);
+        int taken = 0;
+        int index = 0;
+
+        for (Entry<V> entry : entries.values()) {
+            if (taken == sample.length) break;
+            if (index++ % stride == 0) {
+                sample[taken++] = entry.lastAccess;
+            }
+        }
+
+        if (taken == 0) return Long.MAX_VALUE;
+        Arrays.sort(sample, 0, taken);
+        int rank = (int) Math.min(taken - 1L, (long) taken * excess / size);
+        return sample[rank];
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        volatile long lastAccess;
+
+        Entry(V value, long lastAccess) {
+            this.value = value;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
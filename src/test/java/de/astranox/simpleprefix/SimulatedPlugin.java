@@ -0,0 +1,38 @@
+package de.astranox.simpleprefix;
+
+import de.astranox.simpleprefix.simulation.SimulatedServer;
+import org.bukkit.plugin.InvalidDescriptionException;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.java.JavaPluginLoader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+public class SimulatedPlugin extends SimplePrefix {
+
+    @SuppressWarnings("deprecation")
+    public SimulatedPlugin(SimulatedServer server, File dataFolder) {
+        super(new JavaPluginLoader(server.asBukkit()), description(), dataFolder,
+                new File(dataFolder.getParentFile(), "SimplePrefix.jar"));
+    }
+
+    public void enable() {
+        setEnabled(true);
+    }
+
+    public void disable() {
+        setEnabled(false);
+    }
+
+    private static PluginDescriptionFile description() {
+        try (InputStream in = SimplePrefix.class.getResourceAsStream("/plugin.yml")) {
+            if (in == null) {
+                throw new IllegalStateException("plugin.yml not found on the classpath");
+            }
+            return new PluginDescriptionFile(in);
+        } catch (IOException | InvalidDescriptionException e) {
+            throw new IllegalStateException("Cannot read plugin.yml", e);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package de.astranox.simpleprefix.jmh;
+
+import de.astranox.simpleprefix.simulation.Stubs;
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.entity.Player;
+
+import java.lang.reflect.Proxy;
+import java.util.Set;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+public final class BenchmarkServer {
+
+    private static final String BUKKIT_VERSION = System.getProperty("simpleprefix.bench.version", "1.20.4-R0.1-SNAPSHOT");
+    private static final Logger LOGGER = Logger.getLogger("SimplePrefix-Bench");
+
+    private BenchmarkServer() {
+    }
+
+    public static synchronized void install() {
+        if (Bukkit.getServer() != null) {
+            return;
+        }
+
+        Server server = (Server) Proxy.newProxyInstance(Server.class.getClassLoader(), new Class<?>[]{Server.class},
+                (proxy, m, args) -> {
+                    switch (m.getName()) {
+                        case "getBukkitVersion":
+                            return BUKKIT_VERSION;
+                        case "getVersion":
+                            return "benchmark (MC: " + BUKKIT_VERSION.split("-")[0] + ")";
+                        case "getName":
+                            return "Benchmark";
+                        case "getLogger":
+                            return LOGGER;
+                        default:
+                            return Stubs.defaultValue(proxy, m, args);
+                    }
+                });
+        Bukkit.setServer(server);
+    }
+
+    public static Player player(String name, Set<String> permissions) {
+        UUID uuid = UUID.nameUUIDFromBytes(("OfflinePlayer:" + name).getBytes());
+
+        return (Player) Proxy.newProxyInstance(Player.class.getClassLoader(), new Class<?>[]{Player.class},
+                (proxy, m, args) -> {
+                    switch (m.getName()) {
+                        case "getName":
+                        case "getDisplayName":
+                            return name;
+                        case "getUniqueId":
+                            return uuid;
+                        case "isOnline":
+                            return true;
+                        case "hasPermission":
+                            return args[0] instanceof String && permissions.contains(args[0]);
+                        default:
+                            return Stubs.defaultValue(proxy, m, args);
+                    }
+                });
+    }
+}
@@ -0,0 +1,73 @@
+package de.astranox.simpleprefix.managers;
+
+import de.astranox.simpleprefix.jmh.BenchmarkServer;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GroupResolveBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int groups;
+
+    private GroupRegistry registry;
+    private Player topRanked;
+    private Player lowestRanked;
+    private Player unranked;
+
+    @Setup
+    public void setUp() {
+        BenchmarkServer.install();
+
+        GroupRegistry built = GroupRegistry.empty();
+        for (int i = 0; i < groups; i++) {
+            built = built.with("group" + i, new GroupManager.GroupData("&7[G" + i + "] ", "", i, null));
+        }
+        registry = built;
+
+        topRanked = BenchmarkServer.player("top", permissions("group0"));
+        lowestRanked = BenchmarkServer.player("lowest", permissions("group" + (groups - 1)));
+        unranked = BenchmarkServer.player("unranked", Collections.emptySet());
+    }
+
+    private static Set<String> permissions(String groupName) {
+        Set<String> permissions = new HashSet<>();
+        permissions.add("simpleprefix.group." + groupName);
+        return permissions;
+    }
+
+    @Benchmark
+    public Object resolveTopRanked() {
+        return PermissionGroupResolver.firstGranted(registry, topRanked);
+    }
+
+    @Benchmark
+    public Object resolveLowestRanked() {
+        return PermissionGroupResolver.firstGranted(registry, lowestRanked);
+    }
+
+    @Benchmark
+    public Object resolveUnranked() {
+        return PermissionGroupResolver.firstGranted(registry, unranked);
+    }
+}
@@ -0,0 +1,260 @@
+package de.astranox.simpleprefix.simulation;
+
+import de.astranox.simpleprefix.handlers.PlayerUpdateScheduler;
+import de.astranox.simpleprefix.util.ComponentParser;
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.AsyncPlayerChatEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class LoadSimulationTest {
+
+    private static final int PLAYERS = Integer.getInteger("simpleprefix.sim.players", 1000);
+    private static final int GROUPS = Integer.getInteger("simpleprefix.sim.groups", 20);
+    private static final int MAX_TICKS = Integer.getInteger("simpleprefix.sim.maxTicks", 6000);
+    private static final int CHAT_THREADS = 4;
+
+    private Simulation sim;
+    private SimulatedScoreboard scoreboard;
+
+    @BeforeAll
+    void start() throws IOException {
+        sim = Simulation.start(PLAYERS, GROUPS);
+        scoreboard = sim.getServer().getScoreboard();
+        sim.tickUntil(() -> false, 40);
+    }
+
+    @AfterAll
+    void stop() throws IOException {
+        if (sim != null) {
+            sim.close();
+        }
+    }
+
+    @Test
+    @Order(1)
+    void joinStorm() {
+        scoreboard.resetCounters();
+
+        for (int i = 0; i < PLAYERS; i++) {
+            SimulatedPlayer player = sim.getPlayers().get(i);
+            sim.getLuckPerms().setPrimaryGroup(player.getUniqueId(), Simulation.groupName(i % GROUPS));
+            sim.getServer().join(player);
+            sim.getServer().callEvent(new PlayerJoinEvent(player.asBukkit(), ""));
+        }
+        tickUntil(() -> assigned() == PLAYERS && sim.isIdle());
+
+        assertEquals(PLAYERS, assigned(), "players with a team");
+        assertEquals(PLAYERS, matchingPrefixes(0), "players with the expected prefix");
+        assertEquals(PLAYERS, scoreboard.getEntriesAdded(), "entries added");
+        assertEquals(0, scoreboard.getEntriesRemoved(), "entries removed");
+        assertEquals(0, scoreboard.getTeamsRemoved(), "teams removed");
+        atMost("teams created", scoreboard.getTeamsCreated(), GROUPS);
+        atMost("team updates", scoreboard.getTeamUpdates(), 2L * scoreboard.getTeamsCreated());
+        atMostBroadcast();
+    }
+
+    @Test
+    @Order(2)
+    void chatBurst() throws Exception {
+        scoreboard.resetCounters();
+        long lookupsBefore = parserLookups();
+        long formatsBefore = sim.getPlugin().getMetrics().getChatFormatTime().getCount();
+
+        List<SimulatedPlayer> players = sim.getPlayers();
+        ExecutorService chatThreads = Executors.newFixedThreadPool(CHAT_THREADS);
+        long mismatches = 0;
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            int perThread = PLAYERS / CHAT_THREADS + 1;
+            for (int t = 0; t < CHAT_THREADS; t++) {
+                int from = t * perThread;
+                int to = Math.min(PLAYERS, from + perThread);
+                futures.add(chatThreads.submit(() -> {
+                    long wrong = 0;
+                    for (int i = from; i < to; i++) {
+                        Player player = players.get(i).asBukkit();
+                        AsyncPlayerChatEvent event = new AsyncPlayerChatEvent(true, player, "hello",
+                                new HashSet<>(Collections.singleton(player)));
+                        sim.getServer().callEvent(event);
+                        String tag = Simulation.groupTag(i % GROUPS);
+                        if (!event.getFormat().contains(tag) || !event.getFormat().contains("%2$s")) {
+                            wrong++;
+                        }
+                    }
+                    return wrong;
+                }));
+            }
+            for (Future<Long> future : futures) {
+                mismatches += future.get();
+            }
+        } finally {
+            chatThreads.shutdownNow();
+        }
+
+        assertEquals(0, mismatches, "messages without the expected format");
+        assertEquals(PLAYERS, sim.getPlugin().getMetrics().getChatFormatTime().getCount() - formatsBefore,
+                "chat formats served");
+        assertEquals(0, parserLookups() - lookupsBefore, "formats rendered on the chat thread");
+        assertEquals(0, scoreboard.getMutations(), "scoreboard mutations");
+        assertEquals(0, scoreboard.getPackets(), "team packets");
+    }
+
+    @Test
+    @Order(3)
+    void massRankChange() {
+        scoreboard.resetCounters();
+        PlayerUpdateScheduler updates = sim.getPlugin().getLuckPermsEventHandler().getUpdateScheduler();
+        long updatesBefore = updates.getUpdatesPerformed();
+
+        for (int i = 0; i < PLAYERS; i++) {
+            SimulatedPlayer player = sim.getPlayers().get(i);
+            sim.getLuckPerms().changePrimaryGroup(player.getUniqueId(), Simulation.groupName((i + 1) % GROUPS));
+        }
+        tickUntil(sim::isIdle);
+
+        assertEquals(PLAYERS, updates.getUpdatesPerformed() - updatesBefore, "player updates");
+        assertEquals(PLAYERS, matchingPrefixes(1), "players with the new prefix");
+        assertEquals(PLAYERS, scoreboard.getEntriesAdded(), "entries moved");
+        atMost("entries removed by moves", scoreboard.getEntriesRemoved(), PLAYERS);
+        atMost("teams created", scoreboard.getTeamsCreated(), GROUPS);
+        atMost("teams removed", scoreboard.getTeamsRemoved(), GROUPS);
+        atMost("team updates", scoreboard.getTeamUpdates(), 2L * scoreboard.getTeamsCreated());
+        atMostBroadcast();
+    }
+
+    @Test
+    @Order(4)
+    void groupMetadataChange() {
+        scoreboard.resetCounters();
+        PlayerUpdateScheduler updates = sim.getPlugin().getLuckPermsEventHandler().getUpdateScheduler();
+        long updatesBefore = updates.getUpdatesPerformed();
+        int members = sim.getPlugin().getTeamManager().getMemberIndex().membersOf(Simulation.groupName(0)).size();
+
+        sim.getLuckPerms().touchGroup(Simulation.groupName(0));
+        tickUntil(sim::isIdle);
+
+        assertEquals(members, updates.getUpdatesPerformed() - updatesBefore, "player updates");
+        assertEquals(0, scoreboard.getMutations(), "scoreboard mutations");
+        assertEquals(0, scoreboard.getPackets(), "team packets");
+    }
+
+    @Test
+    @Order(5)
+    void reload() {
+        scoreboard.resetCounters();
+
+        boolean formatsChanged = sim.getPlugin().getConfigManager().reloadConfig();
+        Set<String> changed = sim.getPlugin().getGroupManager().reloadGroups();
+        int refreshed = formatsChanged ? sim.getPlugin().getRefreshJob().requestAll(null) : sim.getPlugin().updateGroups(changed);
+        tickUntil(sim::isIdle);
+
+        assertEquals(0, changed.size(), "groups changed");
+        assertEquals(0, refreshed, "players refreshed");
+        assertEquals(PLAYERS, matchingPrefixes(1), "players with an unchanged prefix");
+        assertEquals(0, scoreboard.getMutations(), "scoreboard mutations");
+        assertEquals(0, scoreboard.getPackets(), "team packets");
+    }
+
+    @Test
+    @Order(6)
+    void groupFileEdit() throws IOException {
+        scoreboard.resetCounters();
+        String groupName = Simulation.groupName(0);
+        int members = sim.getPlugin().getTeamManager().getMemberIndex().membersOf(groupName).size();
+
+        sim.editGroup(groupName, "nameColor", "red");
+        Set<String> changed = sim.getPlugin().getGroupManager().reloadGroups();
+        int refreshed = sim.getPlugin().updateGroups(changed);
+        tickUntil(sim::isIdle);
+
+        assertEquals(1, changed.size(), "groups changed");
+        assertEquals(members, refreshed, "players refreshed");
+        assertEquals(PLAYERS, matchingPrefixes(1), "players with an unchanged prefix");
+        assertEquals(0, scoreboard.getMutations(), "scoreboard mutations");
+        assertEquals(0, scoreboard.getPackets(), "team packets");
+    }
+
+    @Test
+    @Order(7)
+    void quitStorm() {
+        scoreboard.resetCounters();
+
+        for (SimulatedPlayer player : sim.getPlayers()) {
+            sim.getServer().callEvent(new PlayerQuitEvent(player.asBukkit(), ""));
+            sim.getServer().quit(player);
+        }
+        tickUntil(sim::isIdle);
+
+        assertEquals(0, scoreboard.getTeamCount(), "teams left behind");
+        assertEquals(PLAYERS, scoreboard.getEntriesRemoved(), "entries removed");
+        assertEquals(0, scoreboard.getEntriesAdded(), "entries added");
+        assertEquals(0, scoreboard.getTeamsCreated(), "teams created");
+        assertEquals(0, scoreboard.getTeamUpdates(), "team updates");
+        atMost("teams removed", scoreboard.getTeamsRemoved(), GROUPS);
+        atMostBroadcast();
+    }
+
+    private void tickUntil(BooleanSupplier done) {
+        int ticks = sim.tickUntil(done, MAX_TICKS);
+        assertTrue(ticks < MAX_TICKS, "did not settle within " + MAX_TICKS + " ticks");
+    }
+
+    private int assigned() {
+        int assigned = 0;
+        for (SimulatedPlayer player : sim.getPlayers()) {
+            if (scoreboard.getTeamOf(player.getName()) != null) {
+                assigned++;
+            }
+        }
+        return assigned;
+    }
+
+    private int matchingPrefixes(int shift) {
+        int matching = 0;
+        List<SimulatedPlayer> players = sim.getPlayers();
+        for (int i = 0; i < players.size(); i++) {
+            String prefix = scoreboard.getPrefixOf(players.get(i).getName());
+            if (prefix != null && prefix.contains(Simulation.groupTag((i + shift) % GROUPS))) {
+                matching++;
+            }
+        }
+        return matching;
+    }
+
+    private static long parserLookups() {
+        return ComponentParser.getCache().getHits() + ComponentParser.getCache().getMisses()
+                + ComponentParser.getComponentCache().getHits() + ComponentParser.getComponentCache().getMisses();
+    }
+
+    private void atMostBroadcast() {
+        atMost("team packets", scoreboard.getPackets(), scoreboard.getMutations() * PLAYERS);
+    }
+
+    private static void atMost(String what, long actual, long limit) {
+        assertTrue(actual <= limit, what + " <= " + limit + " (was " + actual + ")");
+    }
+}
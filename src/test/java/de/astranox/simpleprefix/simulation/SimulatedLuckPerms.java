@@ -0,0 +1,309 @@
+package de.astranox.simpleprefix.simulation;
+
+import net.luckperms.api.LuckPerms;
+import net.luckperms.api.LuckPermsProvider;
+import net.luckperms.api.event.EventBus;
+import net.luckperms.api.event.EventSubscription;
+import net.luckperms.api.event.LuckPermsEvent;
+import net.luckperms.api.event.group.GroupDataRecalculateEvent;
+import net.luckperms.api.event.node.NodeAddEvent;
+import net.luckperms.api.event.node.NodeRemoveEvent;
+import net.luckperms.api.event.user.UserDataRecalculateEvent;
+import net.luckperms.api.model.group.Group;
+import net.luckperms.api.model.group.GroupManager;
+import net.luckperms.api.model.user.User;
+import net.luckperms.api.model.user.UserManager;
+import net.luckperms.api.node.NodeType;
+import net.luckperms.api.node.types.PrefixNode;
+import net.luckperms.api.node.types.SuffixNode;
+import net.luckperms.api.platform.PlayerAdapter;
+import org.bukkit.entity.Player;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+public class SimulatedLuckPerms {
+
+    private final Map<UUID, String> primaryGroups = new ConcurrentHashMap<>();
+    private final Map<String, GroupState> groups = new ConcurrentHashMap<>();
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final LongAdder eventsFired = new LongAdder();
+    private final LongAdder groupWrites = new LongAdder();
+    private final LuckPerms proxy;
+
+    public SimulatedLuckPerms() {
+        GroupManager groupManager = proxy(GroupManager.class, (p, m, args) -> {
+            switch (m.getName()) {
+                case "getGroup":
+                    GroupState group = groups.get(((String) args[0]).toLowerCase());
+                    return group != null ? group.bukkit : null;
+                case "getLoadedGroups":
+                    List<Group> loaded = new ArrayList<>();
+                    for (GroupState state : groups.values()) loaded.add(state.bukkit);
+                    return Collections.unmodifiableList(loaded);
+                case "isLoaded":
+                    return groups.containsKey(((String) args[0]).toLowerCase());
+                case "createAndLoadGroup":
+                    return CompletableFuture.completedFuture(addGroup((String) args[0], null, null, 0).bukkit);
+                case "loadGroup":
+                    GroupState loadedGroup = groups.get(((String) args[0]).toLowerCase());
+                    return CompletableFuture.completedFuture(Optional.ofNullable(
+                            loadedGroup != null ? loadedGroup.bukkit : null));
+                case "modifyGroup":
+                case "saveGroup":
+                    groupWrites.increment();
+                    return CompletableFuture.completedFuture(null);
+                case "deleteGroup":
+                    groups.remove(((Group) args[0]).getName().toLowerCase());
+                    return CompletableFuture.completedFuture(null);
+                default:
+                    return Stubs.defaultValue(p, m, args);
+            }
+        });
+
+        UserManager userManager = proxy(UserManager.class, (p, m, args) -> {
+            if (m.getName().equals("getUser") && args[0] instanceof UUID) {
+                return user((UUID) args[0]);
+            }
+            if (m.getName().equals("isLoaded")) {
+                return primaryGroups.containsKey((UUID) args[0]);
+            }
+            return Stubs.defaultValue(p, m, args);
+        });
+
+        PlayerAdapter<?> playerAdapter = proxy(PlayerAdapter.class, (p, m, args) -> {
+            if (m.getName().equals("getUser")) {
+                return user(((Player) args[0]).getUniqueId());
+            }
+            return Stubs.defaultValue(p, m, args);
+        });
+
+        EventBus eventBus = proxy(EventBus.class, (p, m, args) -> {
+            if (m.getName().equals("subscribe")) {
+                Class<?> type = (Class<?>) args[args.length - 2];
+                @SuppressWarnings("unchecked")
+                Consumer<Object> handler = (Consumer<Object>) args[args.length - 1];
+                Subscription subscription = new Subscription(type, handler);
+                subscriptions.add(subscription);
+                return subscription.handle;
+            }
+            return Stubs.defaultValue(p, m, args);
+        });
+
+        this.proxy = proxy(LuckPerms.class, (p, m, args) -> {
+            switch (m.getName()) {
+                case "getGroupManager":
+                    return groupManager;
+                case "getUserManager":
+                    return userManager;
+                case "getPlayerAdapter":
+                    return playerAdapter;
+                case "getEventBus":
+                    return eventBus;
+                case "getServerName":
+                    return "simulated";
+                default:
+                    return Stubs.defaultValue(p, m, args);
+            }
+        });
+    }
+
+    public void install() {
+        try {
+            Method register = LuckPermsProvider.class.getDeclaredMethod("register", LuckPerms.class);
+            register.setAccessible(true);
+            register.invoke(null, proxy);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot register simulated LuckPerms", e);
+        }
+    }
+
+    public LuckPerms asApi() {
+        return proxy;
+    }
+
+    public GroupState addGroup(String name, String prefix, String suffix, int priority) {
+        GroupState group = new GroupState(name.toLowerCase(), prefix, suffix, priority);
+        groups.put(group.name, group);
+        return group;
+    }
+
+    public void setPrimaryGroup(UUID uuid, String groupName) {
+        primaryGroups.put(uuid, groupName.toLowerCase());
+    }
+
+    public void changePrimaryGroup(UUID uuid, String groupName) {
+        setPrimaryGroup(uuid, groupName);
+        User user = user(uuid);
+
+        fire(NodeRemoveEvent.class, user);
+        fire(NodeAddEvent.class, user);
+        fire(UserDataRecalculateEvent.class, user);
+    }
+
+    public void touchGroup(String groupName) {
+        GroupState group = groups.get(groupName.toLowerCase());
+        if (group == null) {
+            return;
+        }
+
+        fire(NodeAddEvent.class, group.bukkit);
+        fire(GroupDataRecalculateEvent.class, group.bukkit);
+    }
+
+    public long getEventsFired() {
+        return eventsFired.sum();
+    }
+
+    public long getGroupWrites() {
+        return groupWrites.sum();
+    }
+
+    private User user(UUID uuid) {
+        String primary = primaryGroups.get(uuid);
+        if (primary == null) {
+            return null;
+        }
+
+        return proxy(User.class, (p, m, args) -> {
+            switch (m.getName()) {
+                case "getUniqueId":
+                    return uuid;
+                case "getUsername":
+                    return uuid.toString();
+                case "getPrimaryGroup":
+                    return primaryGroups.getOrDefault(uuid, "default");
+                default:
+                    return Stubs.defaultValue(p, m, args);
+            }
+        });
+    }
+
+    private <T extends LuckPermsEvent> void fire(Class<T> type, Object subject) {
+        T event = proxy(type, (p, m, args) -> {
+            switch (m.getName()) {
+                case "getUser":
+                    return subject instanceof User ? subject : null;
+                case "getGroup":
+                    return subject instanceof Group ? subject : null;
+                case "getTarget":
+                    return subject;
+                case "isUser":
+                    return subject instanceof User;
+                case "isGroup":
+                    return subject instanceof Group;
+                case "getLuckPerms":
+                    return proxy;
+                case "getEventType":
+                    return type;
+                default:
+                    return Stubs.defaultValue(p, m, args);
+            }
+        });
+
+        eventsFired.increment();
+        for (Subscription subscription : subscriptions) {
+            if (subscription.active && subscription.type.isInstance(event)) {
+                subscription.handler.accept(event);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<?> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    public static final class GroupState {
+        final String name;
+        final Group bukkit;
+        volatile String prefix;
+        volatile String suffix;
+        volatile int priority;
+
+        GroupState(String name, String prefix, String suffix, int priority) {
+            this.name = name;
+            this.prefix = prefix;
+            this.suffix = suffix;
+            this.priority = priority;
+            this.bukkit = proxy(Group.class, (p, m, args) -> {
+                switch (m.getName()) {
+                    case "getName":
+                        return this.name;
+                    case "getNodes":
+                        return nodes(args != null && args.length == 1 ? args[0] : null);
+                    default:
+                        return Stubs.defaultValue(p, m, args);
+                }
+            });
+        }
+
+        private Collection<?> nodes(Object type) {
+            if (type == NodeType.PREFIX) {
+                return chatMeta(PrefixNode.class, prefix);
+            }
+            if (type == NodeType.SUFFIX) {
+                return chatMeta(SuffixNode.class, suffix);
+            }
+            return Collections.emptyList();
+        }
+
+        private Collection<?> chatMeta(Class<?> nodeType, String value) {
+            if (value == null || value.isEmpty()) {
+                return Collections.emptyList();
+            }
+
+            int nodePriority = priority;
+            return Collections.singletonList(proxy(nodeType, (p, m, args) -> {
+                switch (m.getName()) {
+                    case "getMetaValue":
+                        return value;
+                    case "getPriority":
+                        return nodePriority;
+                    case "getValue":
+                        return true;
+                    default:
+                        return Stubs.defaultValue(p, m, args);
+                }
+            }));
+        }
+    }
+
+    private static final class Subscription {
+        final Class<?> type;
+        final Consumer<Object> handler;
+        final EventSubscription<?> handle;
+        volatile boolean active = true;
+
+        Subscription(Class<?> type, Consumer<Object> handler) {
+            this.type = type;
+            this.handler = handler;
+            this.handle = proxy(EventSubscription.class, (p, m, args) -> {
+                switch (m.getName()) {
+                    case "getEventClass":
+                        return type;
+                    case "isActive":
+                        return active;
+                    case "close":
+                        active = false;
+                        return null;
+                    default:
+                        return Stubs.defaultValue(p, m, args);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package de.astranox.simpleprefix.simulation;
+
+import org.bukkit.entity.Player;
+import org.bukkit.permissions.Permission;
+import org.bukkit.scoreboard.Scoreboard;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class SimulatedPlayer {
+
+    private final String name;
+    private final UUID uuid;
+    private final Set<String> permissions = ConcurrentHashMap.newKeySet();
+    private final Player proxy;
+    private volatile String displayName;
+    private volatile String playerListName;
+    private volatile Scoreboard scoreboard;
+    private volatile boolean online;
+    private volatile long listNameUpdates;
+
+    public SimulatedPlayer(String name) {
+        this.name = name;
+        this.uuid = UUID.nameUUIDFromBytes(("OfflinePlayer:" + name).getBytes(StandardCharsets.UTF_8));
+        this.displayName = name;
+        this.playerListName = name;
+        this.proxy = (Player) Proxy.newProxyInstance(Player.class.getClassLoader(),
+                new Class<?>[]{Player.class}, (p, m, args) -> {
+                    switch (m.getName()) {
+                        case "getName":
+                            return name;
+                        case "getUniqueId":
+                            return uuid;
+                        case "getDisplayName":
+                            return displayName;
+                        case "setDisplayName":
+                            displayName = (String) args[0];
+                            return null;
+                        case "getPlayerListName":
+                            return playerListName;
+                        case "setPlayerListName":
+                            playerListName = (String) args[0];
+                            listNameUpdates++;
+                            return null;
+                        case "isOnline":
+                            return online;
+                        case "hasPermission":
+                            return permissions.contains(args[0] instanceof Permission
+                                    ? ((Permission) args[0]).getName()
+                                    : (String) args[0]);
+                        case "isPermissionSet":
+                            return args[0] instanceof String && permissions.contains(args[0]);
+                        case "getEffectivePermissions":
+                            return Collections.emptySet();
+                        case "getScoreboard":
+                            return scoreboard;
+                        case "setScoreboard":
+                            scoreboard = (Scoreboard) args[0];
+                            return null;
+                        default:
+                            return Stubs.defaultValue(p, m, args);
+                    }
+                });
+    }
+
+    public Player asBukkit() {
+        return proxy;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public UUID getUniqueId() {
+        return uuid;
+    }
+
+    public void setOnline(boolean online) {
+        this.online = online;
+    }
+
+    public void grant(String permission) {
+        permissions.add(permission);
+    }
+
+    public void revokeAll() {
+        permissions.clear();
+    }
+
+    public long getListNameUpdates() {
+        return listNameUpdates;
+    }
+}
@@ -0,0 +1,159 @@
+package de.astranox.simpleprefix.simulation;
+
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SimulatedScheduler {
+
+    private final List<Task> tasks = new ArrayList<>();
+    private final BukkitScheduler proxy;
+    private int nextId = 1;
+    private volatile long currentTick;
+    private long asyncSkipped;
+
+    public SimulatedScheduler() {
+        this.proxy = (BukkitScheduler) Proxy.newProxyInstance(BukkitScheduler.class.getClassLoader(),
+                new Class<?>[]{BukkitScheduler.class}, (p, m, args) -> {
+                    switch (m.getName()) {
+                        case "runTask":
+                            return schedule((Plugin) args[0], args[1], 0L, -1L);
+                        case "runTaskLater":
+                            return schedule((Plugin) args[0], args[1], (Long) args[2], -1L);
+                        case "runTaskTimer":
+                            return schedule((Plugin) args[0], args[1], (Long) args[2], (Long) args[3]);
+                        case "runTaskAsynchronously":
+                        case "runTaskLaterAsynchronously":
+                        case "runTaskTimerAsynchronously":
+                            asyncSkipped++;
+                            return schedule((Plugin) args[0], null, 0L, -1L);
+                        case "cancelTask":
+                            cancel((Integer) args[0]);
+                            return null;
+                        case "cancelTasks":
+                            cancelAll();
+                            return null;
+                        default:
+                            return Stubs.defaultValue(p, m, args);
+                    }
+                });
+    }
+
+    public BukkitScheduler asBukkit() {
+        return proxy;
+    }
+
+    public void tick() {
+        currentTick++;
+
+        List<Task> due = new ArrayList<>();
+        synchronized (tasks) {
+            for (Task task : tasks) {
+                if (!task.cancelled && task.nextRun <= currentTick) {
+                    due.add(task);
+                }
+            }
+        }
+
+        for (Task task : due) {
+            if (task.cancelled) {
+                continue;
+            }
+            if (task.period > 0) {
+                task.nextRun = currentTick + task.period;
+            } else {
+                task.cancelled = true;
+            }
+            task.runnable.run();
+        }
+        synchronized (tasks) {
+            tasks.removeIf(task -> task.cancelled);
+        }
+    }
+
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    public long getAsyncSkipped() {
+        return asyncSkipped;
+    }
+
+    public int getPendingTasks() {
+        synchronized (tasks) {
+            return tasks.size();
+        }
+    }
+
+    private BukkitTask schedule(Plugin owner, Object runnable, long delay, long period) {
+        synchronized (tasks) {
+            Task task = new Task(nextId++, owner, (Runnable) runnable, currentTick + Math.max(1L, delay), period);
+            if (runnable != null) {
+                tasks.add(task);
+            } else {
+                task.cancelled = true;
+            }
+            return task.asBukkit();
+        }
+    }
+
+    private void cancel(int id) {
+        synchronized (tasks) {
+            for (Task task : tasks) {
+                if (task.id == id) {
+                    task.cancelled = true;
+                }
+            }
+        }
+    }
+
+    private void cancelAll() {
+        synchronized (tasks) {
+            for (Task task : tasks) {
+                task.cancelled = true;
+            }
+        }
+    }
+
+    private static final class Task {
+        final int id;
+        final Plugin owner;
+        final Runnable runnable;
+        final long period;
+        long nextRun;
+        volatile boolean cancelled;
+
+        Task(int id, Plugin owner, Runnable runnable, long nextRun, long period) {
+            this.id = id;
+            this.owner = owner;
+            this.runnable = runnable;
+            this.nextRun = nextRun;
+            this.period = period;
+        }
+
+        BukkitTask asBukkit() {
+            return (BukkitTask) Proxy.newProxyInstance(BukkitTask.class.getClassLoader(),
+                    new Class<?>[]{BukkitTask.class}, (p, m, args) -> {
+                        switch (m.getName()) {
+                            case "getTaskId":
+                                return id;
+                            case "getOwner":
+                                return owner;
+                            case "isSync":
+                                return true;
+                            case "isCancelled":
+                                return cancelled;
+                            case "cancel":
+                                cancelled = true;
+                                return null;
+                            default:
+                                return Stubs.defaultValue(p, m, args);
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package de.astranox.simpleprefix.simulation;
+
+import org.bukkit.OfflinePlayer;
+import org.bukkit.scoreboard.Scoreboard;
+import org.bukkit.scoreboard.Team;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntSupplier;
+
+public class SimulatedScoreboard {
+
+    private final Map<String, TeamState> teams = new LinkedHashMap<>();
+    private final Map<String, TeamState> entryTeams = new HashMap<>();
+    private final IntSupplier viewers;
+    private final Scoreboard proxy;
+
+    private long teamsCreated;
+    private long teamsRemoved;
+    private long teamUpdates;
+    private long entriesAdded;
+    private long entriesRemoved;
+    private long packets;
+
+    public SimulatedScoreboard(IntSupplier viewers) {
+        this.viewers = viewers;
+        this.proxy = (Scoreboard) Proxy.newProxyInstance(Scoreboard.class.getClassLoader(),
+                new Class<?>[]{Scoreboard.class}, (p, m, args) -> {
+                    switch (m.getName()) {
+                        case "getTeam":
+                            return asBukkit(teams.get((String) args[0]));
+                        case "registerNewTeam":
+                            return asBukkit(register((String) args[0]));
+                        case "getEntryTeam":
+                            return asBukkit(entryTeams.get((String) args[0]));
+                        case "getPlayerTeam":
+                            return asBukkit(entryTeams.get(((OfflinePlayer) args[0]).getName()));
+                        case "getTeams":
+                            Set<Team> all = new HashSet<>();
+                            for (TeamState team : teams.values()) all.add(team.bukkit);
+                            return all;
+                        case "getEntries":
+                            return new HashSet<>(entryTeams.keySet());
+                        default:
+                            return Stubs.defaultValue(p, m, args);
+                    }
+                });
+    }
+
+    public Scoreboard asBukkit() {
+        return proxy;
+    }
+
+    public int getTeamCount() {
+        return teams.size();
+    }
+
+    public String getPrefixOf(String entry) {
+        TeamState team = entryTeams.get(entry);
+        return team != null ? team.prefix : null;
+    }
+
+    public String getTeamOf(String entry) {
+        TeamState team = entryTeams.get(entry);
+        return team != null ? team.name : null;
+    }
+
+    public long getMutations() {
+        return teamsCreated + teamsRemoved + teamUpdates + entriesAdded + entriesRemoved;
+    }
+
+    public long getTeamsCreated() {
+        return teamsCreated;
+    }
+
+    public long getTeamsRemoved() {
+        return teamsRemoved;
+    }
+
+    public long getTeamUpdates() {
+        return teamUpdates;
+    }
+
+    public long getEntriesAdded() {
+        return entriesAdded;
+    }
+
+    public long getEntriesRemoved() {
+        return entriesRemoved;
+    }
+
+    public long getPackets() {
+        return packets;
+    }
+
+    public void resetCounters() {
+        teamsCreated = 0;
+        teamsRemoved = 0;
+        teamUpdates = 0;
+        entriesAdded = 0;
+        entriesRemoved = 0;
+        packets = 0;
+    }
+
+    private void broadcast() {
+        packets += viewers.getAsInt();
+    }
+
+    private TeamState register(String name) {
+        if (teams.containsKey(name)) {
+            throw new IllegalArgumentException("Team name '" + name + "' is already in use");
+        }
+        TeamState team = new TeamState(name);
+        teams.put(name, team);
+        teamsCreated++;
+        broadcast();
+        return team;
+    }
+
+    private Team asBukkit(TeamState team) {
+        return team != null ? team.bukkit : null;
+    }
+
+    private final class TeamState {
+        final String name;
+        final Set<String> entries = new HashSet<>();
+        final Team bukkit;
+        String prefix = "";
+        String suffix = "";
+        boolean registered = true;
+
+        TeamState(String name) {
+            this.name = name;
+            this.bukkit = (Team) Proxy.newProxyInstance(Team.class.getClassLoader(),
+                    new Class<?>[]{Team.class}, (p, m, args) -> {
+                        switch (m.getName()) {
+                            case "getName":
+                            case "getDisplayName":
+                                return name;
+                            case "getPrefix":
+                                return prefix;
+                            case "getSuffix":
+                                return suffix;
+                            case "setPrefix":
+                                checkRegistered();
+                                prefix = (String) args[0];
+                                teamUpdates++;
+                                broadcast();
+                                return null;
+                            case "setSuffix":
+                                checkRegistered();
+                                suffix = (String) args[0];
+                                teamUpdates++;
+                                broadcast();
+                                return null;
+                            case "hasEntry":
+                                return entries.contains((String) args[0]);
+                            case "addEntry":
+                                addEntry((String) args[0]);
+                                return null;
+                            case "removeEntry":
+                                return removeEntry((String) args[0]);
+                            case "getEntries":
+                                return Collections.unmodifiableSet(new HashSet<>(entries));
+                            case "getSize":
+                                return entries.size();
+                            case "unregister":
+                                unregister();
+                                return null;
+                            default:
+                                return Stubs.defaultValue(p, m, args);
+                        }
+                    });
+        }
+
+        void checkRegistered() {
+            if (!registered) {
+                throw new IllegalStateException("Unregistered scoreboard component");
+            }
+        }
+
+        void addEntry(String entry) {
+            checkRegistered();
+            TeamState previous = entryTeams.get(entry);
+            if (previous == this) {
+                return;
+            }
+            if (previous != null) {
+                previous.removeEntry(entry);
+            }
+            entries.add(entry);
+            entryTeams.put(entry, this);
+            entriesAdded++;
+            broadcast();
+        }
+
+        boolean removeEntry(String entry) {
+            checkRegistered();
+            if (!entries.remove(entry)) {
+                return false;
+            }
+            entryTeams.remove(entry);
+            entriesRemoved++;
+            broadcast();
+            return true;
+        }
+
+        void unregister() {
+            checkRegistered();
+            for (String entry : entries) {
+                entryTeams.remove(entry);
+            }
+            entries.clear();
+            teams.remove(name);
+            registered = false;
+            teamsRemoved++;
+            broadcast();
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package de.astranox.simpleprefix.simulation;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.scoreboard.ScoreboardManager;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Logger;
+
+public class SimulatedServer {
+
+    private static final String BUKKIT_VERSION = System.getProperty("simpleprefix.sim.version", "1.20.4-R0.1-SNAPSHOT");
+
+    private final Logger logger = Logger.getLogger("SimulatedServer");
+    private final Map<UUID, SimulatedPlayer> online = new ConcurrentHashMap<>();
+    private final List<Handler> handlers = new CopyOnWriteArrayList<>();
+    private final Map<String, PluginCommand> commands = new HashMap<>();
+    private final SimulatedScheduler scheduler = new SimulatedScheduler();
+    private final SimulatedScoreboard scoreboard = new SimulatedScoreboard(online::size);
+    private final Server proxy;
+    private final Thread mainThread = Thread.currentThread();
+    private Plugin plugin;
+
+    public SimulatedServer() {
+        ScoreboardManager scoreboards = (ScoreboardManager) Proxy.newProxyInstance(
+                ScoreboardManager.class.getClassLoader(), new Class<?>[]{ScoreboardManager.class},
+                (p, m, args) -> {
+                    if (m.getName().equals("getMainScoreboard") || m.getName().equals("getNewScoreboard")) {
+                        return scoreboard.asBukkit();
+                    }
+                    return Stubs.defaultValue(p, m, args);
+                });
+
+        PluginManager plugins = (PluginManager) Proxy.newProxyInstance(
+                PluginManager.class.getClassLoader(), new Class<?>[]{PluginManager.class},
+                (p, m, args) -> {
+                    switch (m.getName()) {
+                        case "registerEvents":
+                            registerEvents((Listener) args[0]);
+                            return null;
+                        case "registerEvent":
+                            registerEvent(args);
+                            return null;
+                        case "callEvent":
+                            callEvent((Event) args[0]);
+                            return null;
+                        case "getPlugin":
+                            return plugin != null && plugin.getName().equals(args[0]) ? plugin : null;
+                        case "isPluginEnabled":
+                            return args[0] == plugin || (plugin != null && plugin.getName().equals(args[0]));
+                        default:
+                            return Stubs.defaultValue(p, m, args);
+                    }
+                });
+
+        this.proxy = (Server) Proxy.newProxyInstance(Server.class.getClassLoader(), new Class<?>[]{Server.class},
+                (p, m, args) -> {
+                    switch (m.getName()) {
+                        case "getBukkitVersion":
+                            return BUKKIT_VERSION;
+                        case "getVersion":
+                            return "simulated (MC: " + BUKKIT_VERSION.split("-")[0] + ")";
+                        case "getName":
+                            return "SimulatedServer";
+                        case "getLogger":
+                            return logger;
+                        case "getScheduler":
+                            return scheduler.asBukkit();
+                        case "getScoreboardManager":
+                            return scoreboards;
+                        case "getPluginManager":
+                            return plugins;
+                        case "getOnlinePlayers":
+                            return onlinePlayers();
+                        case "getPlayer":
+                            return args[0] instanceof UUID ? player((UUID) args[0]) : playerExact((String) args[0]);
+                        case "getPlayerExact":
+                            return playerExact((String) args[0]);
+                        case "getPluginCommand":
+                            return command((String) args[0]);
+                        case "isPrimaryThread":
+                            return Thread.currentThread() == mainThread;
+                        case "getMaxPlayers":
+                            return Integer.MAX_VALUE;
+                        default:
+                            return Stubs.defaultValue(p, m, args);
+                    }
+                });
+    }
+
+    public void install() {
+        if (Bukkit.getServer() == null) {
+            Bukkit.setServer(proxy);
+        } else if (Bukkit.getServer() != proxy) {
+            throw new IllegalStateException("Another server is already installed");
+        }
+    }
+
+    public Server asBukkit() {
+        return proxy;
+    }
+
+    public void setPlugin(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    public SimulatedScheduler getScheduler() {
+        return scheduler;
+    }
+
+    public SimulatedScoreboard getScoreboard() {
+        return scoreboard;
+    }
+
+    public Logger getLogger() {
+        return logger;
+    }
+
+    public void join(SimulatedPlayer player) {
+        player.setOnline(true);
+        online.put(player.getUniqueId(), player);
+    }
+
+    public void quit(SimulatedPlayer player) {
+        online.remove(player.getUniqueId());
+        player.setOnline(false);
+    }
+
+    public Collection<SimulatedPlayer> getSimulatedPlayers() {
+        return Collections.unmodifiableCollection(online.values());
+    }
+
+    public void callEvent(Event event) {
+        for (Handler handler : handlers) {
+            if (!handler.eventClass.isInstance(event)) {
+                continue;
+            }
+            if (handler.ignoreCancelled && event instanceof Cancellable && ((Cancellable) event).isCancelled()) {
+                continue;
+            }
+            try {
+                handler.executor.execute(handler.listener, event);
+            } catch (Exception e) {
+                throw new IllegalStateException("Could not pass " + event.getEventName() + " to " + handler.listener, e);
+            }
+        }
+    }
+
+    private Collection<Player> onlinePlayers() {
+        List<Player> players = new ArrayList<>(online.size());
+        for (SimulatedPlayer player : online.values()) {
+            players.add(player.asBukkit());
+        }
+        return Collections.unmodifiableList(players);
+    }
+
+    private Player player(UUID uuid) {
+        SimulatedPlayer player = online.get(uuid);
+        return player != null ? player.asBukkit() : null;
+    }
+
+    private Player playerExact(String name) {
+        for (SimulatedPlayer player : online.values()) {
+            if (player.getName().equalsIgnoreCase(name)) {
+                return player.asBukkit();
+            }
+        }
+        return null;
+    }
+
+    private PluginCommand command(String name) {
+        if (plugin == null) {
+            return null;
+        }
+        return commands.computeIfAbsent(name.toLowerCase(), key -> {
+            try {
+                Constructor<PluginCommand> constructor = PluginCommand.class.getDeclaredConstructor(String.class, Plugin.class);
+                constructor.setAccessible(true);
+                return constructor.newInstance(key, plugin);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Cannot create command " + key, e);
+            }
+        });
+    }
+
+    private void registerEvents(Listener listener) {
+        for (Method method : listener.getClass().getMethods()) {
+            EventHandler annotation = method.getAnnotation(EventHandler.class);
+            if (annotation == null || method.getParameterCount() != 1
+                    || !Event.class.isAssignableFrom(method.getParameterTypes()[0])) {
+                continue;
+            }
+
+            EventExecutor executor = (l, event) -> {
+                try {
+                    method.invoke(l, event);
+                } catch (InvocationTargetException e) {
+                    throw new IllegalStateException(e.getCause());
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                }
+            };
+            addHandler(new Handler(method.getParameterTypes()[0], annotation.priority(), listener, executor,
+                    annotation.ignoreCancelled()));
+        }
+    }
+
+    private void registerEvent(Object[] args) {
+        boolean ignoreCancelled = args.length > 5 && (Boolean) args[5];
+        addHandler(new Handler((Class<?>) args[0], (EventPriority) args[2], (Listener) args[1],
+                (EventExecutor) args[3], ignoreCancelled));
+    }
+
+    private void addHandler(Handler handler) {
+        List<Handler> sorted = new ArrayList<>(handlers);
+        sorted.add(handler);
+        sorted.sort(Comparator.comparingInt(h -> h.priority.getSlot()));
+        handlers.clear();
+        handlers.addAll(sorted);
+    }
+
+    private static final class Handler {
+        final Class<?> eventClass;
+        final EventPriority priority;
+        final Listener listener;
+        final EventExecutor executor;
+        final boolean ignoreCancelled;
+
+        Handler(Class<?> eventClass, EventPriority priority, Listener listener, EventExecutor executor,
+                boolean ignoreCancelled) {
+            this.eventClass = eventClass;
+            this.priority = priority;
+            this.listener = listener;
+            this.executor = executor;
+            this.ignoreCancelled = ignoreCancelled;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package de.astranox.simpleprefix.simulation;
+
+import de.astranox.simpleprefix.SimplePrefix;
+import de.astranox.simpleprefix.SimulatedPlugin;
+import de.astranox.simpleprefix.handlers.PlayerUpdateScheduler;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+public class Simulation implements AutoCloseable {
+
+    private static final long TICK_PAUSE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final File root;
+    private final SimulatedServer server;
+    private final SimulatedLuckPerms luckPerms;
+    private final SimulatedPlugin plugin;
+    private final List<SimulatedPlayer> players;
+    private final int groupCount;
+
+    private Simulation(File root, SimulatedServer server, SimulatedLuckPerms luckPerms, SimulatedPlugin plugin,
+                       List<SimulatedPlayer> players, int groupCount) {
+        this.root = root;
+        this.server = server;
+        this.luckPerms = luckPerms;
+        this.plugin = plugin;
+        this.players = players;
+        this.groupCount = groupCount;
+    }
+
+    public static Simulation start(int playerCount, int groupCount) throws IOException {
+        File root = Files.createTempDirectory("simpleprefix-sim").toFile();
+        File dataFolder = new File(root, "SimplePrefix");
+        if (!dataFolder.mkdirs()) {
+            throw new IOException("Cannot create " + dataFolder);
+        }
+
+        writeConfig(new File(dataFolder, "config.yml"));
+        writeGroups(new File(dataFolder, "groups.yml"), groupCount);
+
+        SimulatedServer server = new SimulatedServer();
+        server.install();
+
+        SimulatedLuckPerms luckPerms = new SimulatedLuckPerms();
+        luckPerms.addGroup("default", "&8[&7Player&8]&7 ", "", 0);
+        for (int i = 0; i < groupCount; i++) {
+            luckPerms.addGroup(groupName(i), groupPrefix(i), "", i + 1);
+        }
+        luckPerms.install();
+
+        SimulatedPlugin plugin = new SimulatedPlugin(server, dataFolder);
+        server.setPlugin(plugin);
+        plugin.enable();
+
+        List<SimulatedPlayer> players = new ArrayList<>(playerCount);
+        for (int i = 0; i < playerCount; i++) {
+            players.add(new SimulatedPlayer(String.format("Sim%05d", i)));
+        }
+
+        return new Simulation(root, server, luckPerms, plugin, Collections.unmodifiableList(players), groupCount);
+    }
+
+    public static String groupName(int index) {
+        return "group" + index;
+    }
+
+    public static String groupPrefix(int index) {
+        return "&7[G" + index + "] ";
+    }
+
+    public static String groupTag(int index) {
+        return "[G" + index + "]";
+    }
+
+    public int tickUntil(BooleanSupplier done, int maxTicks) {
+        int ticks = 0;
+        while (ticks < maxTicks && !done.getAsBoolean()) {
+            server.getScheduler().tick();
+            ticks++;
+            LockSupport.parkNanos(TICK_PAUSE_NANOS);
+        }
+        return ticks;
+    }
+
+    public void editGroup(String groupName, String key, Object value) throws IOException {
+        File file = new File(plugin.getDataFolder(), "groups.yml");
+        YamlConfiguration groups = YamlConfiguration.loadConfiguration(file);
+        groups.set("groups." + groupName + "." + key, value);
+        groups.save(file);
+    }
+
+    public boolean isIdle() {
+        PlayerUpdateScheduler updates = plugin.getLuckPermsEventHandler() != null
+                ? plugin.getLuckPermsEventHandler().getUpdateScheduler()
+                : null;
+        if (plugin.getRefreshJob().isRunning()) {
+            return false;
+        }
+        return updates == null || updates.getPendingPlayers() + updates.getPendingGroups() == 0;
+    }
+
+    public SimulatedServer getServer() {
+        return server;
+    }
+
+    public SimulatedLuckPerms getLuckPerms() {
+        return luckPerms;
+    }
+
+    public SimplePrefix getPlugin() {
+        return plugin;
+    }
+
+    public List<SimulatedPlayer> getPlayers() {
+        return players;
+    }
+
+    public int getGroupCount() {
+        return groupCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        plugin.disable();
+
+        try (Stream<Path> files = Files.walk(root.toPath())) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    private static void writeConfig(File file) throws IOException {
+        YamlConfiguration config = new YamlConfiguration();
+        try (InputStream in = SimplePrefix.class.getResourceAsStream("/config.yml")) {
+            if (in != null) {
+                config = YamlConfiguration.loadConfiguration(new InputStreamReader(in, StandardCharsets.UTF_8));
+            }
+        }
+
+        config.set("settings.update-check.enabled", false);
+        config.set("settings.debug", false);
+        config.save(file);
+    }
+
+    private static void writeGroups(File file, int groupCount) throws IOException {
+        YamlConfiguration groups = new YamlConfiguration();
+        groups.set("groups.default.prefix", "&8[&7Player&8]&7 ");
+        groups.set("groups.default.suffix", "");
+        groups.set("groups.default.priority", 0);
+
+        for (int i = 0; i < groupCount; i++) {
+            String path = "groups." + groupName(i);
+            groups.set(path + ".prefix", groupPrefix(i));
+            groups.set(path + ".suffix", "");
+            groups.set(path + ".priority", i + 1);
+        }
+        groups.save(file);
+    }
+}
@@ -0,0 +1,33 @@
+package de.astranox.simpleprefix.simulation;
+
+import java.lang.reflect.Method;
+
+public final class Stubs {
+
+    private Stubs() {
+    }
+
+    public static Object defaultValue(Object proxy, Method m, Object[] args) {
+        switch (m.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return proxy.getClass().getInterfaces()[0].getSimpleName() + "Stub";
+            default:
+                break;
+        }
+
+        Class<?> type = m.getReturnType();
+        if (type == boolean.class) return false;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        if (type == double.class) return 0D;
+        if (type == float.class) return 0F;
+        if (type == short.class) return (short) 0;
+        if (type == byte.class) return (byte) 0;
+        if (type == char.class) return (char) 0;
+        return null;
+    }
+}
@@ -0,0 +1,73 @@
+package de.astranox.simpleprefix.util;
+
+import de.astranox.simpleprefix.jmh.BenchmarkServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ComponentParserBenchmark {
+
+    @Param({"legacy", "minimessage", "gradient"})
+    public String input;
+
+    private ComponentParser parser;
+    private String text;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkServer.install();
+        parser = new ComponentParser(null);
+
+        switch (input) {
+            case "legacy":
+                text = "&8[&cAdmin&8] &7";
+                break;
+            case "minimessage":
+                text = "<dark_gray>[<red><bold>Admin</bold></red>]</dark_gray> <gray>";
+                break;
+            default:
+                text = "<gradient:#ff5555:#5555ff>Administrator</gradient> <gray>";
+                break;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ColdCache {
+        @Setup(Level.Invocation)
+        public void clear() {
+            ComponentParser.invalidateCache();
+        }
+    }
+
+    @Benchmark
+    public String parse() {
+        return parser.parse(text);
+    }
+
+    @Benchmark
+    public String parseUncached(ColdCache cold) {
+        return parser.parse(text);
+    }
+
+    @Benchmark
+    public Object parseComponentUncached(ColdCache cold) {
+        return parser.parseComponent(text);
+    }
+}
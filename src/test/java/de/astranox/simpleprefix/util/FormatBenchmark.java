@@ -0,0 +1,60 @@
+package de.astranox.simpleprefix.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormatBenchmark {
+
+    private static final String CHAT_FORMAT = "{prefix}{player}&7: &f{message}";
+    private static final String PREFIX = "&8[&cAdmin&8] &7";
+    private static final String SUFFIX = " &7[&6VIP&7]";
+    private static final String COLORED = "&8[&cAdmin&8] &7Notch&7: &fhello &aworld";
+
+    private FormatTemplate template;
+
+    @Setup
+    public void setUp() {
+        template = FormatTemplate.compile(CHAT_FORMAT);
+    }
+
+    @Benchmark
+    public String replaceChain() {
+        return CHAT_FORMAT
+                .replace("{prefix}", PREFIX)
+                .replace("{suffix}", SUFFIX)
+                .replace("{player}", "Notch")
+                .replace("{displayname}", "Notch")
+                .replace("{message}", "%2$s");
+    }
+
+    @Benchmark
+    public String templateRender() {
+        return template.render(PREFIX, SUFFIX, "Notch", "Notch", "%2$s");
+    }
+
+    @Benchmark
+    public FormatTemplate templateCompile() {
+        return FormatTemplate.compile(CHAT_FORMAT);
+    }
+
+    @Benchmark
+    public String bukkitColorApply() {
+        return BukkitColor.apply(COLORED);
+    }
+}
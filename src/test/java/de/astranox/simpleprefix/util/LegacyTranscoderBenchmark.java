@@ -0,0 +1,55 @@
+package de.astranox.simpleprefix.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LegacyTranscoderBenchmark {
+
+    @Param({"16", "256"})
+    public int limit;
+
+    private String text;
+
+    @Setup
+    public void setUp() {
+        StringBuilder b = new StringBuilder();
+        while (b.length() < 300) {
+            b.append("§x§f§f§5§5§5§5A§c§lB ");
+        }
+        text = b.toString();
+    }
+
+    @Benchmark
+    public String truncate() {
+        return LegacyTranscoder.truncate(text, limit);
+    }
+
+    @Benchmark
+    public String downsample() {
+        return LegacyTranscoder.transcode(text, true, limit);
+    }
+
+    @Benchmark
+    public String regexChain() {
+        String legacy = text.replaceAll("(?i)(§x(§[0-9A-F]){6})", "");
+        legacy = legacy.replaceAll("(?i)§[lmnok]", "");
+        return BukkitColor.apply(legacy);
+    }
+}